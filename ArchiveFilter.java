@@ -0,0 +1,85 @@
+//@@author A0100081E
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * ArchiveFilter is a Bloom filter of the tasks in the archive, which is kept in StorageInformation.json,
+ * so checking whether a task is archived only reads the archive if the filter has the task.
+ * A task removed from the archive is left in the filter, as the filter may have tasks which are not archived, but never
+ * leaves out an archived task. The filter is sized for a number of tasks, and is built again from the archive once it is full.
+ */
+public class ArchiveFilter {
+	private static final int BITS_PER_TASK = 10;
+	private static final int HASH_COUNT = 7;
+	private static final int MIN_CAPACITY = 64;
+
+	// Number of tasks the filter is sized for, and the number of tasks added
+	private int capacity;
+	private int taskCount;
+	// Bits of the filter in Base64, as the filter is written in StorageInformation.json
+	private String bits;
+	private transient byte[] bitArray;
+
+	/**
+	 * Constructs an empty filter for at least the given number of tasks
+	 */
+	public ArchiveFilter(int capacity) {
+		this.capacity = Math.max(capacity, MIN_CAPACITY);
+		this.taskCount = 0;
+		this.bitArray = new byte[this.capacity * BITS_PER_TASK / Byte.SIZE];
+		this.bits = Base64.getEncoder().encodeToString(bitArray);
+	}
+
+	/**
+	 * This method adds the tasks to the filter, which may leave it with more tasks than it is sized for
+	 */
+	public void addAll(Collection<Task> tasks) {
+		byte[] addedBitArray = getBitArray();
+		for (Task task : tasks) {
+			for (int i = 0; i < HASH_COUNT; i++) {
+				int bit = getBit(task, i, addedBitArray.length * Byte.SIZE);
+				addedBitArray[bit / Byte.SIZE] |= 1 << (bit % Byte.SIZE);
+			}
+		}
+
+		taskCount += tasks.size();
+		bits = Base64.getEncoder().encodeToString(addedBitArray);
+	}
+
+	/**
+	 * @return	false if the task is not archived, or true if it may be
+	 */
+	public boolean mightContain(Task task) {
+		byte[] readBitArray = getBitArray();
+		for (int i = 0; i < HASH_COUNT; i++) {
+			int bit = getBit(task, i, readBitArray.length * Byte.SIZE);
+			if ((readBitArray[bit / Byte.SIZE] & (1 << (bit % Byte.SIZE))) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return	true if the filter would have more tasks than it is sized for after adding the given number of tasks
+	 */
+	public boolean isFull(int addedTaskCount) {
+		return taskCount + addedTaskCount > capacity;
+	}
+
+	private byte[] getBitArray() {
+		if (bitArray == null) {
+			bitArray = Base64.getDecoder().decode(bits);
+		}
+		return bitArray;
+	}
+
+	/**
+	 * The bits of a task are found by double hashing its hash code, so that every bit does not need its own hash function
+	 */
+	private static int getBit(Task task, int i, int bitCount) {
+		int hash = task.hashCode();
+		int secondHash = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+		return Math.floorMod(hash + i * secondHash, bitCount);
+	}
+}
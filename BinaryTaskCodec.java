@@ -0,0 +1,280 @@
+//@@author A0100081E
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * BinaryTaskCodec streams the task list in a compact binary format, i.e. TaskStorage.bin
+ * The file starts with a header, followed by one length-prefixed record for each task:
+ * <length of record> <flags> [<start>] [<end>] <length of name> <name in UTF-8>
+ * Each date is written as its seconds since the epoch in UTC followed by its nanoseconds,
+ * and is only written if its flag is set. Bytes after the name are skipped so that records can be extended.
+ */
+public class BinaryTaskCodec implements TaskCodec {
+	// "TSKB" followed by the version of the format
+	private static final int MAGIC = 0x54534B42;
+	private static final byte VERSION = 1;
+	private static final int MAX_RECORD_LENGTH = 1 << 24;
+	private static final byte FLAG_HAS_START = 1;
+	private static final byte FLAG_HAS_END = 1 << 1;
+	private static final byte FLAG_IS_DONE = 1 << 2;
+	private static final int DATE_TIME_LENGTH = Long.BYTES + Integer.BYTES;
+
+	@Override
+	public TaskReader newReader(InputStream in) throws IOException {
+		final DataInputStream dataInput = new DataInputStream(new BufferedInputStream(in));
+
+		return new TaskReader() {
+			private boolean isStarted = false;
+
+			@Override
+			public boolean hasNext() throws IOException {
+				dataInput.mark(1);
+				if (dataInput.read() == -1) {
+					return false;
+				}
+				dataInput.reset();
+
+				if (!isStarted) {
+					readHeader(dataInput);
+					isStarted = true;
+					return hasNext();
+				}
+				return true;
+			}
+
+			@Override
+			public Task next() throws IOException {
+				int length = dataInput.readInt();
+				if (length < 0 || length > MAX_RECORD_LENGTH) {
+					throw new IOException("Task record has an invalid length of " + length + ".");
+				}
+
+				byte[] record = new byte[length];
+				dataInput.readFully(record);
+				return readRecord(ByteBuffer.wrap(record));
+			}
+		};
+	}
+
+	private static void readHeader(DataInputStream dataInput) throws IOException {
+		if (dataInput.readInt() != MAGIC) {
+			throw new IOException("Task list is not in the binary format.");
+		}
+
+		byte version = dataInput.readByte();
+		if (version != VERSION) {
+			throw new IOException("Version " + version + " of the binary format is not supported.");
+		}
+	}
+
+	/**
+	 * This method finds every record in a task list held in a buffer, without reading the tasks in them
+	 *
+	 * @param buffer		the whole task list in the binary format
+	 * @return				the offset of each record in the buffer, in order
+	 * @throws IOException	if the task list is not in the binary format, or a record is truncated or invalid
+	 */
+	public static int[] findRecords(ByteBuffer buffer) throws IOException {
+		ByteBuffer records = buffer.duplicate();
+		int[] offsets = new int[1024];
+		int recordCount = 0;
+
+		try {
+			if (records.getInt() != MAGIC || records.get() != VERSION) {
+				throw new IOException("Task list is not in version " + VERSION + " of the binary format.");
+			}
+
+			while (records.hasRemaining()) {
+				int offset = records.position();
+				int length = records.getInt();
+				if (length < 1 || length > records.remaining()) {
+					throw new IOException("Task record at " + offset + " is truncated.");
+				}
+
+				// A task with a start but no end cannot be ordered
+				byte flags = records.get(records.position());
+				if ((flags & FLAG_HAS_START) != 0 && (flags & FLAG_HAS_END) == 0) {
+					throw new IOException("Task record at " + offset + " is invalid.");
+				}
+				records.position(records.position() + length);
+
+				if (recordCount == offsets.length) {
+					offsets = Arrays.copyOf(offsets, recordCount * 2);
+				}
+				offsets[recordCount++] = offset;
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Task list is truncated.", e);
+		}
+
+		return Arrays.copyOf(offsets, recordCount);
+	}
+
+	/**
+	 * This method reads the task in a record found by findRecords
+	 *
+	 * @param buffer		the whole task list in the binary format
+	 * @param offset		the offset of the record in the buffer
+	 * @return				the task in the record
+	 * @throws IOException	if the record could not be read
+	 */
+	public static Task readRecord(ByteBuffer buffer, int offset) throws IOException {
+		try {
+			ByteBuffer record = buffer.duplicate();
+			int length = record.getInt(offset);
+			record.limit(offset + Integer.BYTES + length);
+			record.position(offset + Integer.BYTES);
+			return readRecord(record.slice());
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Task record at " + offset + " could not be read.", e);
+		}
+	}
+
+	/**
+	 * This method reads the start of the task in a record found by findRecords, without reading the rest of the task
+	 *
+	 * @param buffer		the whole task list in the binary format
+	 * @param offset		the offset of the record in the buffer
+	 * @return				the start of the task, or null if it has none
+	 * @throws IOException	if the record could not be read
+	 */
+	public static LocalDateTime readRecordStart(ByteBuffer buffer, int offset) throws IOException {
+		try {
+			int position = offset + Integer.BYTES;
+			if ((buffer.get(position) & FLAG_HAS_START) == 0) {
+				return null;
+			}
+			return readDateTime(buffer, position + 1);
+		} catch (RuntimeException e) {
+			throw new IOException("Task record at " + offset + " could not be read.", e);
+		}
+	}
+
+	/**
+	 * This method reads the end of the task in a record found by findRecords, without reading the rest of the task
+	 *
+	 * @param buffer		the whole task list in the binary format
+	 * @param offset		the offset of the record in the buffer
+	 * @return				the end of the task, or null if it has none
+	 * @throws IOException	if the record could not be read
+	 */
+	public static LocalDateTime readRecordEnd(ByteBuffer buffer, int offset) throws IOException {
+		try {
+			int position = offset + Integer.BYTES;
+			byte flags = buffer.get(position++);
+			if ((flags & FLAG_HAS_END) == 0) {
+				return null;
+			}
+			if ((flags & FLAG_HAS_START) != 0) {
+				position += DATE_TIME_LENGTH;
+			}
+			return readDateTime(buffer, position);
+		} catch (RuntimeException e) {
+			throw new IOException("Task record at " + offset + " could not be read.", e);
+		}
+	}
+
+	private static Task readRecord(ByteBuffer record) throws IOException {
+		try {
+			byte flags = record.get();
+			LocalDateTime start = null;
+			LocalDateTime end = null;
+
+			if ((flags & FLAG_HAS_START) != 0) {
+				start = readDateTime(record);
+			}
+			if ((flags & FLAG_HAS_END) != 0) {
+				end = readDateTime(record);
+			}
+
+			byte[] name = new byte[record.getInt()];
+			record.get(name);
+
+			return new Task(new String(name, StandardCharsets.UTF_8), start, end, (flags & FLAG_IS_DONE) != 0);
+		} catch (RuntimeException e) {
+			throw new IOException("Task record could not be read.", e);
+		}
+	}
+
+	private static LocalDateTime readDateTime(ByteBuffer record) {
+		long epochSecond = record.getLong();
+		int nano = record.getInt();
+		return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+	}
+
+	private static LocalDateTime readDateTime(ByteBuffer buffer, int position) {
+		long epochSecond = buffer.getLong(position);
+		int nano = buffer.getInt(position + Long.BYTES);
+		return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+	}
+
+	@Override
+	public TaskWriter newWriter(OutputStream out) throws IOException {
+		final DataOutputStream dataOutput = new DataOutputStream(out);
+		final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+		final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+
+		dataOutput.writeInt(MAGIC);
+		dataOutput.writeByte(VERSION);
+
+		return new TaskWriter() {
+			@Override
+			public void write(Task task) throws IOException {
+				recordBuffer.reset();
+				writeRecord(recordOutput, task);
+
+				dataOutput.writeInt(recordBuffer.size());
+				recordBuffer.writeTo(dataOutput);
+			}
+
+			@Override
+			public void finish() throws IOException {
+				dataOutput.flush();
+			}
+		};
+	}
+
+	private static void writeRecord(DataOutputStream recordOutput, Task task) throws IOException {
+		LocalDateTime start = task.getStartDateTime();
+		LocalDateTime end = task.getEndDateTime();
+		byte flags = 0;
+
+		if (start != null) {
+			flags |= FLAG_HAS_START;
+		}
+		if (end != null) {
+			flags |= FLAG_HAS_END;
+		}
+		if (task.isDone()) {
+			flags |= FLAG_IS_DONE;
+		}
+
+		recordOutput.writeByte(flags);
+		if (start != null) {
+			writeDateTime(recordOutput, start);
+		}
+		if (end != null) {
+			writeDateTime(recordOutput, end);
+		}
+
+		byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+		recordOutput.writeInt(name.length);
+		recordOutput.write(name);
+	}
+
+	private static void writeDateTime(DataOutputStream recordOutput, LocalDateTime dateTime) throws IOException {
+		recordOutput.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+		recordOutput.writeInt(dateTime.getNano());
+	}
+}
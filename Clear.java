@@ -1,20 +1,19 @@
 //@@author A0100081E
-import java.util.ArrayList;
-
 public class Clear extends Command implements Undoable {
 	private static final String SUCCESS_CLEAR = "All tasks were erased.";
 	private static final String SUCCESS_CLEAR_UNDO = "All tasks were rewritten.";
-	private ArrayList<Task> erasedTaskList;
+	private TaskSnapshot erasedTaskList;
 	private boolean wasExecuted;
 	
 	public Clear() {
 		this.wasExecuted = false;
-		this.erasedTaskList = new ArrayList<Task>();
+		this.erasedTaskList = TaskSnapshot.EMPTY;
 	}
 	
 	@Override
 	public void execute() throws Exception {
-		erasedTaskList = storageManager.readAllTasks();
+		// archived tasks are cleared too, so they are rewritten by undo
+		erasedTaskList = storageManager.readAllTasksWithArchive();
 		storageManager.clearAllTasks();
 		wasExecuted = true;
 	}
@@ -28,9 +27,7 @@ public class Clear extends Command implements Undoable {
 	@Override
 	public void undo() throws Exception {
 		assert(wasExecuted);
-		for (Task task : erasedTaskList) {
-			storageManager.writeTask(task);
-		}
+		storageManager.writeTasks(erasedTaskList);
 	}
 
 	//@@author A0100081E
@@ -1,4 +1,5 @@
 //@@author A0126270N
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -27,6 +28,8 @@ public class CommandParser {
   public static final String ERROR_EXPECTED_ONE_TASK_NUM = "Please indicate only one task to %s.";
   public static final String ERROR_NUMBER_FORMAT = "Please specify a valid task number.";
 	public static final String ERROR_INVALID_DATE_AND_TIME = "%s is not a date and time in dd-mm hh:mm or dd-mm-yyyy hh:mm format, where hh:mm is in 24-hour time.";
+	public static final String ERROR_INVALID_DATE = "%s is not a date in dd-mm or dd-mm-yyyy format.";
+	public static final String ERROR_INVALID_DATE_RANGE = "Please specify the dates to list as from <first date> to <last date>, where the first date is not after the last.";
 	public static final String ERROR_COULD_NOT_DETERMINE_TASK_TYPE_TO_ADD = "The type of task to be added could not be determined.";
 	public static final String ERROR_INSUFFICIENT_ARGUMENTS_FOR_ADD = "Please specify the name for the new task, and its start and end date and time if appropriate.";
 	public static final String ERROR_INSUFFICIENT_ARGUMENTS_FOR_REMOVE = "Please specify the task number to be removed.";
@@ -54,6 +57,9 @@ public class CommandParser {
 	// if user omits year, we assume they mean the current year 
 	// to implement this, we append the current year to what the user entered, and so we need another formatter
 	private static final DateTimeFormatter secondaryDateTimeFormatter = DateTimeFormatter.ofPattern("dd-MM HH:mm yyyy");
+	// the formatters used to parse a date without a time, i.e. to list the tasks between two dates
+	private static final DateTimeFormatter primaryDateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+	private static final DateTimeFormatter secondaryDateFormatter = DateTimeFormatter.ofPattern("dd-MM yyyy");
 	// the maximum number of args for command types that take in arguments
 	// the max arguments for add command varies depending on the form used, so it is not listed here
 	private static final int MAX_ARG_REMOVE = 1;
@@ -209,6 +215,8 @@ public class CommandParser {
   		// parse the flags and keywords
   		EnumSet<List.LIST_FLAGS> listFlags = EnumSet.noneOf(List.LIST_FLAGS.class);
   		String[] keywords = null;
+  		LocalDate from = null;
+  		LocalDate to = null;
   		boolean isAllMarked = false;
   		for (int i = 0; i < args.size(); i++) {
   			String flag = args.get(i);
@@ -261,6 +269,23 @@ public class CommandParser {
   					}
   					break;  					
   					
+  				//@@author A0100081E
+  				case "from" :
+  					// the range is given as from <first date> to <last date>
+  					if (from != null || i + 3 >= args.size() || !args.get(i + 2).equals("to")) {
+  						log.log(Level.INFO, "aborting, the dates to list were not given as from <date> to <date>\n");
+  						throw new Exception(ERROR_INVALID_DATE_RANGE);
+  					}
+  					from = parseDate(args.get(i + 1));
+  					to = parseDate(args.get(i + 3));
+  					if (from.isAfter(to)) {
+  						log.log(Level.INFO, "aborting, the first date to list is after the last\n");
+  						throw new Exception(ERROR_INVALID_DATE_RANGE);
+  					}
+  					i += 3;
+  					break;
+  					
+  				//@@author A0145732H
   				default :
   					// if there are quotation marks, it is a keywords string
   					if (flag.startsWith("\"")) {
@@ -272,7 +297,9 @@ public class CommandParser {
   					break;
 				}
   		}
-  		if (keywords == null) {
+  		if (from != null) {
+  			return new List(listFlags, keywords, from, to);
+  		} else if (keywords == null) {
   			return new List(listFlags);
   		} else {
   			return new List(listFlags, keywords);
@@ -461,7 +488,32 @@ public class CommandParser {
   	}
   	
   }
+  
+  //@@author A0100081E
+  /*
+   *Parses the given string into a LocalDate based on the primary or secondary formatter strings, as parseDateTime() does
+   *An exception is thrown if there was an error parsing the String 
+   */
+  public static LocalDate parseDate(String dateString) throws Exception {
+  	try {
+  		return LocalDate.parse(dateString, primaryDateFormatter);
+  	}
+  	catch(DateTimeParseException e) {
+  		// deliberately do nothing and try using another formatter
+  	}
+  	
+  	// if the user has the year omited, assume that it is the current year
+  	try {
+  		int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+  		return LocalDate.parse(dateString + " " + currentYear, secondaryDateFormatter);
+  	}
+  	catch(DateTimeParseException e) {
+  		log.log(Level.INFO, "aborting, could not parse " + dateString + " with the given formatter\n");
+  		throw new Exception(String.format(ERROR_INVALID_DATE, dateString));
+  	}
+  }
     
+  //@@author A0126270N
   /*
    * Converts the integer represented by this String into an integer
    *An exception is thrown if a parsing error error was encountered 
@@ -22,6 +22,36 @@ public class CommandParserTest {
 			assertEquals(List.class, valid.getClass());
 	}
 	
+	//@@author A0100081E
+	@Test
+	public void testListBetweenDatesParsing() throws Exception {
+		Command valid = CommandParser.getCommandFromInput("list from 01-10-2015 to 31-10-2015");
+		assertEquals(List.class, valid.getClass());
+		valid = CommandParser.getCommandFromInput("list events from 01-10 to 31-10 \"meeting\"");
+		assertEquals(List.class, valid.getClass());
+		
+		try {
+			CommandParser.getCommandFromInput("list from 01-10-2015");
+			fail();
+		} catch(Exception e) {
+			assertEquals(e.getMessage(), CommandParser.ERROR_INVALID_DATE_RANGE);
+		}
+		try {
+			CommandParser.getCommandFromInput("list from 31-10-2015 to 01-10-2015");
+			fail();
+		} catch(Exception e) {
+			assertEquals(e.getMessage(), CommandParser.ERROR_INVALID_DATE_RANGE);
+		}
+		try {
+			CommandParser.getCommandFromInput("list from 32-10-2015 to 01-11-2015");
+			fail();
+		} catch(Exception e) {
+			assertEquals(e.getMessage(), String.format(CommandParser.ERROR_INVALID_DATE, "32-10-2015"));
+		}
+	}
+	
+	//@@author A0126270N
+	
 	@Test
 	public void testExitCommandParsing() throws Exception {
 			Command valid1 = CommandParser.getCommandFromInput("exit");
@@ -0,0 +1,200 @@
+//@@author A0100081E
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * DateIndex is an interval tree of the scheduled tasks, kept up to date as tasks are added and removed.
+ * Events are indexed by the interval from their start to their end, and deadlines as the single point of their end.
+ * The tree is a treap ordered by the start of the intervals, where every node keeps the latest end in its subtree,
+ * so the tasks within a date range are found in O(log n + k) without looking at the tasks before or after the range.
+ * Unscheduled tasks are not indexed.
+ */
+public class DateIndex {
+	private Node root = null;
+	private Random random = new Random();
+
+	private static class Node {
+		private Task task;
+		private LocalDateTime start;
+		private LocalDateTime end;
+		private LocalDateTime maxEnd;
+		private int priority;
+		private Node left;
+		private Node right;
+
+		private Node(Task task, int priority) {
+			this.task = task;
+			this.start = getStart(task);
+			this.end = task.getEndDateTime();
+			this.maxEnd = end;
+			this.priority = priority;
+		}
+	}
+
+	/**
+	 * This method adds a task, replacing any equal task, which may differ in whether it is done
+	 */
+	public void add(Task task) {
+		if (task.getEndDateTime() == null) {
+			return;
+		}
+
+		remove(task);
+		root = insert(root, new Node(task, random.nextInt()));
+	}
+
+	public void remove(Task task) {
+		if (task.getEndDateTime() == null) {
+			return;
+		}
+
+		root = remove(root, getStart(task), task);
+	}
+
+	public void clear() {
+		root = null;
+	}
+
+	/**
+	 * This method finds the tasks which are scheduled at some time within a range,
+	 * i.e. events which start before the range ends and end after it starts, and deadlines within the range
+	 *
+	 * @param from	the start of the range
+	 * @param to	the end of the range, which is included
+	 * @return		the tasks within the range, in the order of their start
+	 */
+	public ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+		assert(from != null && to != null);
+
+		ArrayList<Task> foundTasks = new ArrayList<Task>();
+		findBetween(root, from, to, foundTasks);
+		return foundTasks;
+	}
+
+	private static void findBetween(Node node, LocalDateTime from, LocalDateTime to, ArrayList<Task> foundTasks) {
+		// No interval in the subtree ends within the range
+		if (node == null || node.maxEnd.isBefore(from)) {
+			return;
+		}
+
+		findBetween(node.left, from, to, foundTasks);
+		// The intervals of this node and its right subtree start after the range ends
+		if (node.start.isAfter(to)) {
+			return;
+		}
+		if (!node.end.isBefore(from)) {
+			foundTasks.add(node.task);
+		}
+		findBetween(node.right, from, to, foundTasks);
+	}
+
+	private static LocalDateTime getStart(Task task) {
+		return task.getStartDateTime() == null ? task.getEndDateTime() : task.getStartDateTime();
+	}
+
+	/**
+	 * Nodes are ordered by their start, then by the order of their tasks, so that no two tasks have the same position
+	 */
+	private static int compare(LocalDateTime start, Task task, Node node) {
+		int comparison = start.compareTo(node.start);
+		if (comparison != 0) {
+			return comparison;
+		}
+		return task.compareTo(node.task);
+	}
+
+	private static Node insert(Node node, Node newNode) {
+		if (node == null) {
+			return newNode;
+		}
+
+		if (newNode.priority > node.priority) {
+			Node[] parts = split(node, newNode.start, newNode.task);
+			newNode.left = parts[0];
+			newNode.right = parts[1];
+			update(newNode);
+			return newNode;
+		}
+
+		if (compare(newNode.start, newNode.task, node) < 0) {
+			node.left = insert(node.left, newNode);
+		} else {
+			node.right = insert(node.right, newNode);
+		}
+		update(node);
+		return node;
+	}
+
+	private static Node remove(Node node, LocalDateTime start, Task task) {
+		if (node == null) {
+			return null;
+		}
+
+		int comparison = compare(start, task, node);
+		if (comparison == 0) {
+			return merge(node.left, node.right);
+		}
+		if (comparison < 0) {
+			node.left = remove(node.left, start, task);
+		} else {
+			node.right = remove(node.right, start, task);
+		}
+		update(node);
+		return node;
+	}
+
+	/**
+	 * @return	the nodes before the position of the task, and the nodes after it
+	 */
+	private static Node[] split(Node node, LocalDateTime start, Task task) {
+		if (node == null) {
+			return new Node[] {null, null};
+		}
+
+		Node[] parts;
+		if (compare(start, task, node) <= 0) {
+			parts = split(node.left, start, task);
+			node.left = parts[1];
+			parts[1] = node;
+		} else {
+			parts = split(node.right, start, task);
+			node.right = parts[0];
+			parts[0] = node;
+		}
+		update(node);
+		return parts;
+	}
+
+	/**
+	 * @return	the nodes of both treaps, where every node of the left treap is before every node of the right treap
+	 */
+	private static Node merge(Node left, Node right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			update(left);
+			return left;
+		} else {
+			right.left = merge(left, right.left);
+			update(right);
+			return right;
+		}
+	}
+
+	private static void update(Node node) {
+		node.maxEnd = node.end;
+		if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+			node.maxEnd = node.left.maxEnd;
+		}
+		if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+			node.maxEnd = node.right.maxEnd;
+		}
+	}
+}
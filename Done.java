@@ -12,11 +12,13 @@ public class Done extends Command implements Undoable {
 	private static final String SUCCESS_DONE_UNDO = "\"%s\" is now marked as uncompleted.";
 	private static final String ERROR_INDEX_INVALID = "The task number specified is not valid.";
 	private boolean isExecuted;
+	private Task originalTask;
 	private Task completedTask;
 	private int taskIndex; // 0-based indexing
 	
 	public Done(int taskNum) {
 		this.isExecuted = false;
+		originalTask = null;
 		completedTask = null;
 		taskIndex = taskNum - 1;
 	}
@@ -26,10 +28,9 @@ public class Done extends Command implements Undoable {
 	 * Calls the necessary methods to mark a task as completed
 	 */
 	public void execute() throws Exception {
-		completedTask = getTaskFromList();
-		storageManager.removeTask(completedTask);
-		completedTask.setDone(true);
-		storageManager.writeTask(completedTask);
+		originalTask = getTaskFromList();
+		completedTask = new Task(originalTask.getName(), originalTask.getStartDateTime(), originalTask.getEndDateTime(), true);
+		storageManager.updateTask(originalTask, completedTask);
 		isExecuted = true;
 	}
 
@@ -45,9 +46,7 @@ public class Done extends Command implements Undoable {
 	
 	@Override
 	public void undo() throws Exception {
-		storageManager.removeTask(completedTask);
-		completedTask.setDone(false);
-		storageManager.writeTask(completedTask);
+		storageManager.updateTask(completedTask, originalTask);
 	}
 
 	@Override
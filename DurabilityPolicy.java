@@ -0,0 +1,72 @@
+//@@author A0100081E
+/**
+ * DurabilityPolicy is how often writes to the Storage are forced to the disk with fsync.
+ * ALWAYS forces every write, PERIODIC forces at most once per period and NONE leaves it to the operating system.
+ * Under PERIODIC, a write that is not forced when it is made is forced once the period ends, so at most a period of writes is not forced.
+ * Writes that are not yet forced survive the program crashing, but can be lost if the system crashes.
+ */
+public class DurabilityPolicy {
+	public static final DurabilityPolicy ALWAYS = new DurabilityPolicy(0);
+	public static final DurabilityPolicy NONE = new DurabilityPolicy(-1);
+
+	private final long syncPeriod;
+
+	private DurabilityPolicy(long syncPeriod) {
+		this.syncPeriod = syncPeriod;
+	}
+
+	/**
+	 * @param syncPeriod	the shortest time in milliseconds between forced writes
+	 * @return				a policy which forces writes at most once per period
+	 */
+	public static DurabilityPolicy periodic(long syncPeriod) {
+		assert(syncPeriod > 0);
+		return new DurabilityPolicy(syncPeriod);
+	}
+
+	/**
+	 * @param lastSyncTime	the time in milliseconds when writes were last forced
+	 * @param time			the current time in milliseconds
+	 * @return				true if a write made now should be forced
+	 */
+	public boolean isSyncNeeded(long lastSyncTime, long time) {
+		if (this == NONE) {
+			return false;
+		}
+		return time - lastSyncTime >= syncPeriod;
+	}
+
+	/**
+	 * @param lastSyncTime	the time in milliseconds when writes were last forced
+	 * @param time			the current time in milliseconds
+	 * @return				the time in milliseconds until writes which are not forced yet should be forced
+	 */
+	public long getSyncDelay(long lastSyncTime, long time) {
+		assert(isPeriodic());
+		return Math.max(0, lastSyncTime + syncPeriod - time);
+	}
+
+	/**
+	 * @return	true if writes are forced once per period, so writes made within the period are forced when it ends
+	 */
+	public boolean isPeriodic() {
+		return syncPeriod > 0;
+	}
+
+	/**
+	 * @return	true if writes are ever forced, i.e. a new Storage file is always forced before it replaces the old one
+	 */
+	public boolean isSynced() {
+		return this != NONE;
+	}
+
+	@Override
+	public String toString() {
+		if (this == ALWAYS) {
+			return "ALWAYS";
+		} else if (this == NONE) {
+			return "NONE";
+		}
+		return "PERIODIC(" + syncPeriod + " ms)";
+	}
+}
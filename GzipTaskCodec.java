@@ -0,0 +1,60 @@
+//@@author A0100081E
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GzipTaskCodec streams the task list of another format through gzip, i.e. TaskStorage.json.gz
+ * The task list is compressed and decompressed as it is streamed, so the compressed file is never held in memory.
+ */
+public class GzipTaskCodec implements TaskCodec {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private TaskCodec codec;
+	private int compressionLevel;
+
+	/**
+	 * @param codec				the format of the task list inside the gzip stream
+	 * @param compressionLevel	the Deflater level from 1 (fastest) to 9 (smallest), or Deflater.DEFAULT_COMPRESSION
+	 */
+	public GzipTaskCodec(TaskCodec codec, int compressionLevel) {
+		assert(codec != null);
+		assert(compressionLevel == Deflater.DEFAULT_COMPRESSION
+				|| (compressionLevel >= Deflater.BEST_SPEED && compressionLevel <= Deflater.BEST_COMPRESSION));
+
+		this.codec = codec;
+		this.compressionLevel = compressionLevel;
+	}
+
+	@Override
+	public TaskReader newReader(InputStream in) throws IOException {
+		return codec.newReader(new GZIPInputStream(in, BUFFER_SIZE));
+	}
+
+	@Override
+	public TaskWriter newWriter(OutputStream out) throws IOException {
+		final GZIPOutputStream gzipOutput = new GZIPOutputStream(out, BUFFER_SIZE) {
+			{
+				def.setLevel(compressionLevel);
+			}
+		};
+		final TaskWriter taskWriter = codec.newWriter(gzipOutput);
+
+		return new TaskWriter() {
+			@Override
+			public void write(Task task) throws IOException {
+				taskWriter.write(task);
+			}
+
+			@Override
+			public void finish() throws IOException {
+				taskWriter.finish();
+				gzipOutput.finish();
+				out.flush();
+			}
+		};
+	}
+}
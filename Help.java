@@ -40,11 +40,14 @@ public class Help extends Command {
 		+ "- Event Tasks: list events\n"
 		+ "- Today's Tasks: list today\n"
 		+ "- Tomorrow's Tasks: list tomorrow\n"
+		+ "- Tasks between two dates: list from <date> to <date>\n"
 		+ "- Tasks containing specific words: list \"<first word> [additional words]\"\n"
 		+ "Note:\n"
 		+ "- List can be used with short form, l\n"
 		+ "- General list shows all unscheduled tasks\n"
 		+ "- List done has synonyms: completed and finished\n"
+		+ "- <date> can be either DD-MM-YYYY or DD-MM (current year is assumed)\n"
+		+ "- Listing between two dates shows the events and deadlines on any day from the first date to the last\n"
 		+ "- When listing with keywords, make sure words are separated with spaces\n"
 		+ "- You can use multiple list filters and search for specific words in a single \n"
 		+ "  command (i.e. list done events today)";
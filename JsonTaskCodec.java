@@ -0,0 +1,77 @@
+//@@author A0100081E
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JsonTaskCodec streams the task list as a JSON array of tasks, i.e. TaskStorage.json
+ */
+public class JsonTaskCodec implements TaskCodec {
+	private TypeAdapter<Task> taskAdapter;
+
+	public JsonTaskCodec(TypeAdapter<Task> taskAdapter) {
+		assert(taskAdapter != null);
+
+		this.taskAdapter = taskAdapter;
+	}
+
+	@Override
+	public TaskReader newReader(InputStream in) throws IOException {
+		final JsonReader jsonReader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+		return new TaskReader() {
+			private boolean isStarted = false;
+			private boolean isEnded = false;
+
+			@Override
+			public boolean hasNext() throws IOException {
+				if (!isStarted) {
+					jsonReader.beginArray();
+					isStarted = true;
+				}
+				if (isEnded) {
+					return false;
+				}
+				if (!jsonReader.hasNext()) {
+					jsonReader.endArray();
+					isEnded = true;
+					return false;
+				}
+				return true;
+			}
+
+			@Override
+			public Task next() throws IOException {
+				return taskAdapter.read(jsonReader);
+			}
+		};
+	}
+
+	@Override
+	public TaskWriter newWriter(OutputStream out) throws IOException {
+		final JsonWriter jsonWriter = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+		jsonWriter.setSerializeNulls(false);
+		jsonWriter.beginArray();
+
+		return new TaskWriter() {
+			@Override
+			public void write(Task task) throws IOException {
+				taskAdapter.write(jsonWriter, task);
+			}
+
+			@Override
+			public void finish() throws IOException {
+				jsonWriter.endArray();
+				jsonWriter.flush();
+			}
+		};
+	}
+}
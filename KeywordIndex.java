@@ -0,0 +1,204 @@
+//@@author A0100081E
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * KeywordIndex is a trigram index of the lower case task names, which is only built when the names are first searched,
+ * so reading the Storage does not pay for an index which may never be used. Until then, adding and removing tasks does nothing.
+ * Every task is given an id, and every trigram keeps the ids of the names having it in increasing order in an int array,
+ * so a keyword of three or more characters is only searched for in the names having its rarest trigram.
+ * Keywords shorter than a trigram are searched for in every name, as reading every id would take as long.
+ * Keywords are matched anywhere in a name, i.e. "b" is found in "apple banana", as String.contains() would.
+ * An index of a task list which never changes, i.e. a mapped snapshot, uses the position of each task as its id instead,
+ * so it holds no tasks and only reads the candidates from the task list.
+ */
+public class KeywordIndex {
+	private static final int GRAM_LENGTH = 3;
+	private static final int INITIAL_POSTING_LENGTH = 4;
+
+	// Tasks by their id, where the id of a removed task is left empty until the index is built again
+	private List<Task> tasks;
+	private HashMap<Task, Integer> taskIds;
+	private int removedTaskCount;
+	// Task list which never changes, whose tasks are identified by their position, or null if tasks are added and removed
+	private final List<Task> fixedTasks;
+	// Ids of the tasks having each trigram in their name, where the trigram is packed into a long, or null until it is built
+	private HashMap<Long, Posting> postings;
+
+	private static class Posting {
+		private int[] ids = new int[INITIAL_POSTING_LENGTH];
+		private int size = 0;
+
+		/**
+		 * This method adds the id of a task, which is never less than the ids already added
+		 */
+		private void add(int id) {
+			// A name having the same trigram more than once is only added once
+			if (size > 0 && ids[size - 1] == id) {
+				return;
+			}
+			if (size == ids.length) {
+				int[] grownIds = new int[ids.length * 2];
+				System.arraycopy(ids, 0, grownIds, 0, size);
+				ids = grownIds;
+			}
+			ids[size++] = id;
+		}
+	}
+
+	public KeywordIndex() {
+		this.fixedTasks = null;
+	}
+
+	/**
+	 * Constructs the index of a task list which never changes, so tasks are never added to or removed from it
+	 */
+	public KeywordIndex(List<Task> fixedTasks) {
+		assert(fixedTasks != null);
+
+		this.fixedTasks = fixedTasks;
+	}
+
+	/**
+	 * This method adds a task if the index is built, replacing any equal task, which may differ in whether it is done
+	 */
+	public void add(Task task) {
+		assert(fixedTasks == null);
+		if (postings == null) {
+			return;
+		}
+
+		remove(task);
+		int id = tasks.size();
+		tasks.add(task);
+		taskIds.put(task, id);
+		addGrams(task.getLowerCaseName(), id);
+	}
+
+	private void addGrams(String name, int id) {
+		for (int start = 0; start + GRAM_LENGTH <= name.length(); start++) {
+			Long gram = getGram(name, start);
+			Posting posting = postings.get(gram);
+			if (posting == null) {
+				posting = new Posting();
+				postings.put(gram, posting);
+			}
+			posting.add(id);
+		}
+	}
+
+	/**
+	 * This method removes a task if the index is built, leaving its id in the postings until the index is built again
+	 */
+	public void remove(Task task) {
+		assert(fixedTasks == null);
+		if (postings == null) {
+			return;
+		}
+
+		Integer id = taskIds.remove(task);
+		if (id == null) {
+			return;
+		}
+		tasks.set(id, null);
+		removedTaskCount++;
+
+		// The index is built again from the task list once most of its ids are of removed tasks
+		if (removedTaskCount > tasks.size() / 2) {
+			clear();
+		}
+	}
+
+	public void clear() {
+		tasks = null;
+		taskIds = null;
+		removedTaskCount = 0;
+		postings = null;
+	}
+
+	/**
+	 * This method searches for the tasks containing all of the given keywords in their names, ignoring case
+	 * The candidates are the tasks of the rarest trigram of the keywords, which are then checked for all the keywords at once.
+	 * The index is built from the task list if a keyword has a trigram and the index is not built yet.
+	 *
+	 * @param keywords	the keywords to search for in the task names
+	 * @param taskList	the tasks which are indexed, which must be the tasks added since the index was last cleared,
+	 * 					or the fixed task list
+	 * @return			the tasks containing all of the keywords, in no order
+	 */
+	public HashSet<Task> search(String[] keywords, Iterable<Task> taskList) {
+		assert(keywords != null);
+
+		HashSet<Task> foundTasks = new HashSet<Task>();
+		// No task is found without keywords, as there is nothing to match
+		if (keywords.length == 0) {
+			return foundTasks;
+		}
+
+		String[] lowerCaseKeywords = new String[keywords.length];
+		Posting candidates = null;
+		for (int i = 0; i < keywords.length; i++) {
+			lowerCaseKeywords[i] = keywords[i].toLowerCase();
+			for (int start = 0; start + GRAM_LENGTH <= lowerCaseKeywords[i].length(); start++) {
+				if (postings == null) {
+					build(taskList);
+				}
+				Posting posting = postings.get(getGram(lowerCaseKeywords[i], start));
+				if (posting == null) {
+					return foundTasks;
+				}
+				if (candidates == null || posting.size < candidates.size) {
+					candidates = posting;
+				}
+			}
+		}
+
+		KeywordMatcher matcher = new KeywordMatcher(lowerCaseKeywords);
+		if (candidates == null) {
+			// Every keyword is shorter than a trigram, so every name is searched
+			for (Task task : taskList) {
+				if (matcher.matches(task.getLowerCaseName())) {
+					foundTasks.add(task);
+				}
+			}
+			return foundTasks;
+		}
+
+		for (int i = 0; i < candidates.size; i++) {
+			Task task = tasks.get(candidates.ids[i]);
+			if (task != null && matcher.matches(task.getLowerCaseName())) {
+				foundTasks.add(task);
+			}
+		}
+		return foundTasks;
+	}
+
+	private void build(Iterable<Task> taskList) {
+		if (fixedTasks != null) {
+			tasks = fixedTasks;
+			postings = new HashMap<Long, Posting>();
+			for (int id = 0; id < fixedTasks.size(); id++) {
+				addGrams(fixedTasks.get(id).getLowerCaseName(), id);
+			}
+			return;
+		}
+
+		tasks = new ArrayList<Task>();
+		taskIds = new HashMap<Task, Integer>();
+		removedTaskCount = 0;
+		postings = new HashMap<Long, Posting>();
+		for (Task task : taskList) {
+			add(task);
+		}
+	}
+
+	/**
+	 * @return	the trigram of the name at the start, with its three characters packed into a long
+	 */
+	private static Long getGram(String name, int start) {
+		return ((long) name.charAt(start) << (2 * Character.SIZE)) | ((long) name.charAt(start + 1) << Character.SIZE)
+				| name.charAt(start + 2);
+	}
+}
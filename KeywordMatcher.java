@@ -0,0 +1,133 @@
+//@@author A0100081E
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+/**
+ * KeywordMatcher checks whether a task name contains all of the keywords of a search in a single pass over the name.
+ * The keywords are built into an Aho-Corasick automaton, which finds every keyword ending at each character of the name,
+ * so a search with several keywords reads each name once like a search with one.
+ * Names and keywords are compared in lower case, where the name is expected to be in lower case already.
+ */
+public class KeywordMatcher {
+	// Keywords are tracked as the bits of a long, and the keywords after the first 64 are matched by the next matcher
+	private static final int MAX_KEYWORDS = Long.SIZE;
+	private static final int ROOT = 0;
+
+	private char[] alphabet;
+	private int[] transitions;
+	private long[] outputs;
+	private long allKeywords;
+	private KeywordMatcher nextMatcher;
+
+	/**
+	 * @param keywords	the keywords which a name must all contain, ignoring case
+	 */
+	public KeywordMatcher(String[] keywords) {
+		assert(keywords != null);
+
+		// An empty keyword is in every name, and a repeated keyword only needs to be found once
+		LinkedHashSet<String> distinctKeywords = new LinkedHashSet<String>();
+		for (String keyword : keywords) {
+			if (!keyword.isEmpty()) {
+				distinctKeywords.add(keyword.toLowerCase());
+			}
+		}
+		String[] matchedKeywords = distinctKeywords.toArray(new String[distinctKeywords.size()]);
+		if (matchedKeywords.length > MAX_KEYWORDS) {
+			nextMatcher = new KeywordMatcher(Arrays.copyOfRange(matchedKeywords, MAX_KEYWORDS, matchedKeywords.length));
+			matchedKeywords = Arrays.copyOf(matchedKeywords, MAX_KEYWORDS);
+		}
+
+		build(matchedKeywords);
+	}
+
+	/**
+	 * This method builds the automaton as a table of transitions over the characters of the keywords
+	 * A character which is in no keyword always leads back to the root, so it needs no column.
+	 */
+	private void build(String[] keywords) {
+		StringBuilder characters = new StringBuilder();
+		for (String keyword : keywords) {
+			characters.append(keyword);
+		}
+		int maxStateCount = characters.length() + 1;
+		alphabet = getDistinctCharacters(characters.toString().toCharArray());
+
+		int columnCount = alphabet.length;
+		transitions = new int[maxStateCount * columnCount];
+		Arrays.fill(transitions, -1);
+		outputs = new long[maxStateCount];
+
+		// Build the trie of the keywords
+		int stateCount = 1;
+		for (int i = 0; i < keywords.length; i++) {
+			int state = ROOT;
+			for (char character : keywords[i].toCharArray()) {
+				int transition = state * columnCount + Arrays.binarySearch(alphabet, character);
+				if (transitions[transition] == -1) {
+					transitions[transition] = stateCount++;
+				}
+				state = transitions[transition];
+			}
+			outputs[state] |= 1L << i;
+			allKeywords |= 1L << i;
+		}
+
+		// Follow the failure links in breadth-first order, so every missing transition goes where the longest suffix would
+		int[] failures = new int[stateCount];
+		ArrayDeque<Integer> states = new ArrayDeque<Integer>();
+		for (int column = 0; column < columnCount; column++) {
+			int child = transitions[ROOT * columnCount + column];
+			if (child == -1) {
+				transitions[ROOT * columnCount + column] = ROOT;
+			} else {
+				failures[child] = ROOT;
+				states.add(child);
+			}
+		}
+		while (!states.isEmpty()) {
+			int state = states.poll();
+			outputs[state] |= outputs[failures[state]];
+			for (int column = 0; column < columnCount; column++) {
+				int child = transitions[state * columnCount + column];
+				int failureTransition = transitions[failures[state] * columnCount + column];
+				if (child == -1) {
+					transitions[state * columnCount + column] = failureTransition;
+				} else {
+					failures[child] = failureTransition;
+					states.add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return	the distinct characters in sorted order, so the column of a character is found by binary search
+	 */
+	private static char[] getDistinctCharacters(char[] characters) {
+		Arrays.sort(characters);
+		int distinctCount = 0;
+		for (int i = 0; i < characters.length; i++) {
+			if (i == 0 || characters[i] != characters[i - 1]) {
+				characters[distinctCount++] = characters[i];
+			}
+		}
+		return Arrays.copyOf(characters, distinctCount);
+	}
+
+	/**
+	 * @param lowerCaseName	the name in lower case, i.e. Task.getLowerCaseName()
+	 * @return				true if the name contains every keyword
+	 */
+	public boolean matches(String lowerCaseName) {
+		long foundKeywords = 0;
+		int state = ROOT;
+		for (int i = 0; i < lowerCaseName.length() && foundKeywords != allKeywords; i++) {
+			int column = Arrays.binarySearch(alphabet, lowerCaseName.charAt(i));
+			state = column < 0 ? ROOT : transitions[state * alphabet.length + column];
+			foundKeywords |= outputs[state];
+		}
+		return foundKeywords == allKeywords && (nextMatcher == null || nextMatcher.matches(lowerCaseName));
+	}
+}
@@ -1,7 +1,10 @@
 //@@author A0145732H
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.Objects;
 
 /**
  * List command used for listing all tasks or for performing a search on the task list
@@ -12,6 +15,8 @@ public class List extends Command {
 	private String[] keywords;
 	private ArrayList<Task> taskList;
 	EnumSet<LIST_FLAGS> flags;
+	private LocalDate from;
+	private LocalDate to;
 	private boolean wasExecuted;
 	
 	public enum LIST_FLAGS {
@@ -38,24 +43,61 @@ public class List extends Command {
 		this(listFlags);
 		this.keywords = keywords;
 	}
+	
+	//@@author A0100081E
+	/**
+	 * Constructs a List object to list the tasks scheduled at some time between two dates
+	 * 
+	 * @param keywords	the keywords to search for, or null to list the tasks without searching
+	 * @param from		the first date
+	 * @param to		the last date
+	 */
+	public List(EnumSet<LIST_FLAGS> listFlags, String[] keywords, LocalDate from, LocalDate to) {
+		this(listFlags, keywords);
+		this.from = from;
+		this.to = to;
+	}
+	
+	//@@author A0145732H
 
 	@Override
 	/**
 	 * This method handles whether to filter the task list or get the uncompleted tasks list. 
 	 */
 	public void execute() throws Exception {
-		ArrayList<Task> tasks = storageManager.readAllTasks();
+		Collection<Task> tasks;
+		// completed tasks may have been archived, so the archive is only read when they are listed
+		if (flags != null && flags.contains(LIST_FLAGS.COMPLETED)) {
+			tasks = storageManager.readAllTasksWithArchive();
+		} else if (from != null) {
+			// only the tasks between the dates are read, through the interval index of the Storage
+			tasks = storageManager.readTasksBetween(from, to);
+		} else if (flags != null && (flags.contains(LIST_FLAGS.TODAY) || flags.contains(LIST_FLAGS.TOMORROW))) {
+			// only the tasks of today or tomorrow are read, so a sharded Storage only reads their shards
+			LocalDate today = LocalDate.now();
+			LocalDate from = flags.contains(LIST_FLAGS.TODAY) ? today : today.plusDays(1);
+			LocalDate to = flags.contains(LIST_FLAGS.TOMORROW) ? today.plusDays(1) : today;
+			tasks = storageManager.readTasksBetween(from, to);
+		} else {
+			tasks = storageManager.readAllTasks();
+		}
 		if (keywords != null) {
-			tasks = logic.searchTasks(keywords);
+			// archived tasks are completed, so they are only searched when completed tasks are listed
+			boolean isArchiveSearched = flags != null && flags.contains(LIST_FLAGS.COMPLETED);
+			tasks = logic.searchTasks(keywords, isArchiveSearched);
+		}
+		// completed or searched tasks are read without the range, so they are filtered by it here
+		if (from != null) {
+			tasks = logic.getTasksBetween(tasks, from, to);
 		}
 		if (flags != null) {
 			tasks = getFlaggedTasks(tasks);
 		}
-		taskList = tasks;
+		taskList = new ArrayList<Task>(tasks);
 		wasExecuted = true;
 	}
 
-	private ArrayList<Task> getFlaggedTasks(ArrayList<Task> flaggedTasks) {
+	private Collection<Task> getFlaggedTasks(Collection<Task> flaggedTasks) {
 		// keep refining the task list based on which flags are marked
 		if (flags.contains(LIST_FLAGS.COMPLETED)) {
 			flaggedTasks = logic.getCompletedTasks(flaggedTasks);
@@ -104,7 +146,8 @@ public class List extends Command {
 		boolean areKeywordsEqual = Arrays.equals(this.keywords, other.keywords);
 		boolean areTaskListsEqual = this.taskList.equals(other.taskList);
 		boolean areFlagsEqual = this.flags.equals(other.flags);
-		return (isExecutedEqual && areKeywordsEqual && areTaskListsEqual && areFlagsEqual);
+		boolean areDatesEqual = Objects.equals(this.from, other.from) && Objects.equals(this.to, other.to);
+		return (isExecutedEqual && areKeywordsEqual && areTaskListsEqual && areFlagsEqual && areDatesEqual);
 	}
 	
 	/**
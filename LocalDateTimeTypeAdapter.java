@@ -0,0 +1,126 @@
+//@@author A0100081E
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * LocalDateTimeTypeAdapter writes a LocalDateTime as a compact ISO-8601 string, i.e. "2015-10-24T13:00".
+ * It also reads the nested objects which Gson wrote by reflection before this adapter was used, i.e.
+ * {"date":{"year":2015,"month":10,"day":24},"time":{"hour":13,"minute":0,"second":0,"nano":0}}
+ */
+public class LocalDateTimeTypeAdapter extends TypeAdapter<LocalDateTime> {
+	private static final String FIELD_DATE = "date";
+	private static final String FIELD_TIME = "time";
+	private static final String FIELD_YEAR = "year";
+	private static final String FIELD_MONTH = "month";
+	private static final String FIELD_DAY = "day";
+	private static final String FIELD_HOUR = "hour";
+	private static final String FIELD_MINUTE = "minute";
+	private static final String FIELD_SECOND = "second";
+	private static final String FIELD_NANO = "nano";
+
+	@Override
+	public void write(JsonWriter out, LocalDateTime dateTime) throws IOException {
+		if (dateTime == null) {
+			out.nullValue();
+		} else {
+			out.value(dateTime.toString());
+		}
+	}
+
+	@Override
+	public LocalDateTime read(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+
+		if (token == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		} else if (token == JsonToken.BEGIN_OBJECT) {
+			return readLegacyDateTime(in);
+		}
+
+		String dateTime = in.nextString();
+		try {
+			return LocalDateTime.parse(dateTime);
+		} catch (DateTimeParseException e) {
+			throw new JsonSyntaxException(dateTime + " is not a valid date and time.", e);
+		}
+	}
+
+	private LocalDateTime readLegacyDateTime(JsonReader in) throws IOException {
+		// fields of the date and time, in the order year, month, day, hour, minute, second, nano
+		int[] fields = new int[7];
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+				case FIELD_DATE :
+					in.beginObject();
+					while (in.hasNext()) {
+						readLegacyField(in, fields);
+					}
+					in.endObject();
+					break;
+
+				case FIELD_TIME :
+					in.beginObject();
+					while (in.hasNext()) {
+						readLegacyField(in, fields);
+					}
+					in.endObject();
+					break;
+
+				default :
+					in.skipValue();
+			}
+		}
+		in.endObject();
+
+		try {
+			return LocalDateTime.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+		} catch (RuntimeException e) {
+			throw new JsonSyntaxException("The date and time is not valid.", e);
+		}
+	}
+
+	private void readLegacyField(JsonReader in, int[] fields) throws IOException {
+		switch (in.nextName()) {
+			case FIELD_YEAR :
+				fields[0] = in.nextInt();
+				break;
+
+			case FIELD_MONTH :
+				fields[1] = in.nextInt();
+				break;
+
+			case FIELD_DAY :
+				fields[2] = in.nextInt();
+				break;
+
+			case FIELD_HOUR :
+				fields[3] = in.nextInt();
+				break;
+
+			case FIELD_MINUTE :
+				fields[4] = in.nextInt();
+				break;
+
+			case FIELD_SECOND :
+				fields[5] = in.nextInt();
+				break;
+
+			case FIELD_NANO :
+				fields[6] = in.nextInt();
+				break;
+
+			default :
+				in.skipValue();
+		}
+	}
+}
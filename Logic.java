@@ -2,6 +2,7 @@
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EmptyStackException;
 import java.util.Stack;
 
@@ -25,6 +26,10 @@ public class Logic {
 	private static Stack<Undoable> undoableHistory = new Stack<Undoable>();
 	private static Command lastExecutedCommand = null;
 	
+	// default task list, which is only generated again when the version of the task list changes
+	private static ArrayList<Task> defaultTaskList = null;
+	private static long defaultTaskListVersion = 0;
+	
 	// single instances
 	protected static StorageManager storageManager = null;
 	protected static Logic commandLogic = null;
@@ -37,6 +42,7 @@ public class Logic {
 		assert(sm != null);
 		storageManager = sm;
 		storageManager.openStorage();
+		defaultTaskList = null;
 		Command.setStorageManager(sm);
 		
 		assert(logic != null);
@@ -78,41 +84,39 @@ public class Logic {
 	
 	/**
 	 * This method searches the task list for tasks containing all of the given keywords
+	 * The Storage keeps an index of the substrings of the task names, so the task names are not searched one by one.
 	 * 
 	 * @param keywords	the array of keywords to search for in the task names
 	 * @return			an ArrayList of the tasks containing all of the keywords
 	 * 					The ArrayList will be empty if no tasks were found.
 	 */
 	public ArrayList<Task> searchTasks(String[] keywords) {
+		return searchTasks(keywords, false);
+	}
+	
+	//@@author A0100081E
+	/**
+	 * This method searches the task list, and the archived tasks if they are asked for, 
+	 * for tasks containing all of the given keywords
+	 * 
+	 * @param keywords			the array of keywords to search for in the task names
+	 * @param isArchiveSearched	true to search the archived tasks too, i.e. when completed tasks are listed
+	 * @return					an ArrayList of the tasks containing all of the keywords
+	 */
+	public ArrayList<Task> searchTasks(String[] keywords, boolean isArchiveSearched) {
 		assert(keywords != null);
 		
-		ArrayList<Task> taskList = storageManager.readAllTasks();
-		ArrayList<Task> foundTasks = new ArrayList<Task>();		
-		for (int i = 0; i < taskList.size(); i++) {
-			int keywordIndex = 0;
-			Task currentTask = taskList.get(i);
-			
-			// check if currentTask contains all of the keywords before adding to foundTasks
-			while (keywordIndex < keywords.length) {
-				String taskName = currentTask.getName().toLowerCase();
-				if (!taskName.contains(keywords[keywordIndex++].toLowerCase())) {
-					break;
-				}
-				if (keywordIndex == keywords.length) {
-					foundTasks.add(currentTask);
-				}
-			}
-		}
-		return foundTasks;
+		return storageManager.searchTasks(keywords, isArchiveSearched);
 	}
-
+	
+	//@@author A0145732H
 	/**
 	 * This method searches for all of the tasks marked as done in a given task list
 	 * 
-	 * @param taskList	the ArrayList to search through to get the completed tasks
+	 * @param taskList	the task list to search through to get the completed tasks
 	 * @return			an ArrayList of the completed tasks
 	 */
-	public ArrayList<Task> getCompletedTasks(ArrayList<Task> taskList) {
+	public ArrayList<Task> getCompletedTasks(Collection<Task> taskList) {
 		ArrayList<Task> completed = new ArrayList<Task>();
 		for (Task task : taskList) {
 			if (task.isDone()) {
@@ -128,16 +132,15 @@ public class Logic {
 	 * @return	an ArrayList of tasks marked as not done
 	 */
 	public ArrayList<Task> getUncompletedTasks() {
-		ArrayList<Task> taskList = storageManager.readAllTasks();
-		return getUncompletedTasks(taskList);
+		return getUncompletedTasks(storageManager.readAllTasks());
 	}
 
 	/**
 	 * This methods searches for all of the tasks that are not marked as done in a given task list
-	 * @param taskList	the ArrayList to search through to get the uncompleted tasks
+	 * @param taskList	the task list to search through to get the uncompleted tasks
 	 * @return			an ArrayList of the uncompleted tasks
 	 */
-	public ArrayList<Task> getUncompletedTasks(ArrayList<Task> taskList) {
+	public ArrayList<Task> getUncompletedTasks(Collection<Task> taskList) {
 		assert(taskList != null);
 		ArrayList<Task> uncompleted = new ArrayList<Task>();
 		for (Task task : taskList) {
@@ -154,7 +157,7 @@ public class Logic {
 	 * @param taskList	the specified task list to filter for unscheduled tasks
 	 * @return			an ArrayList of the found unscheduled tasks
 	 */
-	public ArrayList<Task> getUnscheduledTasks(ArrayList<Task> taskList) {
+	public ArrayList<Task> getUnscheduledTasks(Collection<Task> taskList) {
 		assert(taskList != null);
 		ArrayList<Task> unscheduled = new ArrayList<Task>();
 		for (Task task : taskList) {
@@ -171,7 +174,7 @@ public class Logic {
 	 * @param taskList	the specified task list to filter for deadlines
 	 * @return			an ArrayList of the found deadlines
 	 */
-	public ArrayList<Task> getDeadlines(ArrayList<Task> taskList) {
+	public ArrayList<Task> getDeadlines(Collection<Task> taskList) {
 		assert(taskList != null);
 		ArrayList<Task> deadlines = new ArrayList<Task>();
 		for (Task task : taskList) {
@@ -188,7 +191,7 @@ public class Logic {
 	 * @param taskList	the specified task list to filter for events
 	 * @return			an ArrayList of the found events
 	 */
-	public ArrayList<Task> getEvents(ArrayList<Task> taskList) {
+	public ArrayList<Task> getEvents(Collection<Task> taskList) {
 		assert(taskList != null);
 		ArrayList<Task> events = new ArrayList<Task>();
 		for (Task task : taskList) {
@@ -205,7 +208,7 @@ public class Logic {
 	 * @param taskList	the specified task list to filter for today's tasks
 	 * @return			an ArrayList of today's tasks
 	 */
-	public ArrayList<Task> getTodaysTasks(ArrayList<Task> taskList) {
+	public ArrayList<Task> getTodaysTasks(Collection<Task> taskList) {
 		assert(taskList != null);
 		LocalDate today = LocalDate.now();
 		ArrayList<Task> todaysTasks = new ArrayList<Task>();
@@ -232,7 +235,7 @@ public class Logic {
 	 * @param taskList	the specified task list to filter for tomorrow's tasks
 	 * @return			an ArrayList of tomorrow's tasks
 	 */
-	public ArrayList<Task> getTomorrowsTasks(ArrayList<Task> taskList) {
+	public ArrayList<Task> getTomorrowsTasks(Collection<Task> taskList) {
 		assert(taskList != null);
 		LocalDate tomorrow = LocalDate.now().plusDays(1);
 		ArrayList<Task> tomorrowsTasks = new ArrayList<Task>();
@@ -254,6 +257,35 @@ public class Logic {
 		return tomorrowsTasks;
 	}
 	
+	//@@author A0100081E
+	/**
+	 * This method searches for any events or deadlines happening at some time between two dates from a specified task list
+	 * 
+	 * @param taskList	the specified task list to filter for the tasks between the dates
+	 * @param from		the first date
+	 * @param to		the last date
+	 * @return			an ArrayList of the events overlapping the dates and the deadlines between them
+	 */
+	public ArrayList<Task> getTasksBetween(Collection<Task> taskList, LocalDate from, LocalDate to) {
+		assert(taskList != null && from != null && to != null);
+		ArrayList<Task> tasksBetween = new ArrayList<Task>();
+		for (Task task : taskList) {
+			LocalDateTime start = task.getStartDateTime();
+			LocalDateTime end = task.getEndDateTime();
+			if (end == null) {
+				continue;
+			}
+			if (start == null) {
+				start = end;
+			}
+			if (!start.toLocalDate().isAfter(to) && !end.toLocalDate().isBefore(from)) {
+				tasksBetween.add(task);
+			}
+		}
+		return tasksBetween;
+	}
+	
+	//@@author A0145732H
 	/**
 	 * Validate whether the event dates are valid (start has to be before end)
 	 * @param start			the start date and time of the event
@@ -363,6 +395,8 @@ public class Logic {
 
 	/**
 	 * Get the task list to correspond to subsequent references by index
+	 * The default task list is kept until the task list changes, including changes read in the background 
+	 * when the Storage is watched, so it is not generated again at every prompt.
 	 * 
 	 * @return	the list of tasks
 	 */
@@ -371,7 +405,12 @@ public class Logic {
 			List command = (List)lastExecutedCommand;
 			return command.getTaskList();
 		} else {
-			return getDefaultTaskList();
+			long taskListVersion = storageManager.getTaskListVersion();
+			if (defaultTaskList == null || taskListVersion != defaultTaskListVersion) {
+				defaultTaskList = getDefaultTaskList();
+				defaultTaskListVersion = taskListVersion;
+			}
+			return new ArrayList<Task>(defaultTaskList);
 		}
 	}
 	
@@ -396,14 +435,6 @@ public class Logic {
 	 */
 	public boolean doesTaskExist(Task task) {
 		assert(task != null);
-		ArrayList<Task> taskList = storageManager.readAllTasks();
-		
-		for (Task t : taskList) {
-			if (t.equals(task)) {
-				return true;
-			}
-		}
-		
-		return false;
+		return storageManager.containsTask(task);
 	}
 }
@@ -1,6 +1,9 @@
 //@@author A0145732H
+import static org.junit.Assert.assertEquals;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -47,6 +50,71 @@ public class LogicTest {
 		assert(actual.equals(expected));
 	}
 	
+	@Test
+	public void testSearchTasksEquivalence() throws Exception {
+		StorageManagerStub sm = new StorageManagerStub();
+		Logic commandLogic = new Logic();
+		logic.init(sm, commandLogic);
+		
+		// names and keywords drawn from few characters, so that keywords are often found in several places in a name
+		String characters = "abAB c";
+		Random random = new Random(2103);
+		for (int i = 0; i < 500; i++) {
+			sm.writeTask(new Task(getRandomString(random, characters, 12), random.nextBoolean()));
+		}
+		sm.writeTask(new Task("", false));
+		
+		// equivalence partition for empty, short and long keywords, one or more of them, including none
+		for (int i = 0; i < 2000; i++) {
+			String[] keywords = new String[random.nextInt(4)];
+			for (int j = 0; j < keywords.length; j++) {
+				keywords[j] = getRandomString(random, characters, 6);
+			}
+			assertEquals(searchTasksByScanning(sm.readAllTasks(), keywords), logic.searchTasks(keywords));
+			
+			// the matcher also checks names which are not in the index, i.e. when scanning
+			if (keywords.length > 0) {
+				KeywordMatcher matcher = new KeywordMatcher(keywords);
+				for (Task task : sm.readAllTasks()) {
+					boolean isFound = !searchTasksByScanning(new TaskSnapshot(new Task[] {task}, 0), keywords).isEmpty();
+					assertEquals(isFound, matcher.matches(task.getLowerCaseName()));
+				}
+			}
+		}
+		sm.clearTasks();
+	}
+	
+	private static String getRandomString(Random random, String characters, int maxLength) {
+		StringBuilder string = new StringBuilder();
+		int length = random.nextInt(maxLength + 1);
+		for (int i = 0; i < length; i++) {
+			string.append(characters.charAt(random.nextInt(characters.length())));
+		}
+		return string.toString();
+	}
+	
+	/*
+	 * Searches every task name for every keyword, as searchTasks did before the task names were indexed
+	 */
+	private static ArrayList<Task> searchTasksByScanning(TaskSnapshot taskList, String[] keywords) {
+		ArrayList<Task> foundTasks = new ArrayList<Task>();		
+		for (int i = 0; i < taskList.size(); i++) {
+			int keywordIndex = 0;
+			Task currentTask = taskList.get(i);
+			
+			while (keywordIndex < keywords.length) {
+				String taskName = currentTask.getName().toLowerCase();
+				if (!taskName.contains(keywords[keywordIndex++].toLowerCase())) {
+					break;
+				}
+				if (keywordIndex == keywords.length) {
+					foundTasks.add(currentTask);
+				}
+			}
+		}
+		return foundTasks;
+	}
+	
 	@Test
 	public void testGetTasksMethods() throws Exception {
 		StorageManagerStub sm = new StorageManagerStub();
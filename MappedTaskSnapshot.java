@@ -0,0 +1,328 @@
+//@@author A0100081E
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * MappedTaskSnapshot is a snapshot of a task list in the binary format which is still in a memory-mapped TaskStorage.bin.
+ * Only the offset of each record is held in memory, and a task is only read from the file when it is accessed.
+ * Tasks are looked up through a hash index of the records, so checking whether a task exists reads only the records with its hash.
+ * Tasks are found by their dates through the dates of the records, which are read in place as the records are in the order
+ * of Task.compareTo, and by their names through a trigram index of the records, so only the tasks found are read.
+ * A snapshot of the task list after it is modified keeps the records which are left, and holds only the tasks added.
+ */
+public class MappedTaskSnapshot extends TaskSnapshot {
+	public static final String ERROR_TASK_NOT_READ = "Task could not be read from the mapped task list.";
+
+	private ByteBuffer buffer;
+	// Offset of each record, or -1 - i for the task at i of the added tasks
+	private int[] offsets;
+	private Task[] addedTasks;
+	private Task[] tasks;
+	// Hash of each record in the high half and its index in the low half, sorted, or null until the first lookup
+	private long[] hashIndex;
+	private KeywordIndex keywordIndex = new KeywordIndex(this);
+
+	public MappedTaskSnapshot(ByteBuffer buffer, int[] offsets, long version) {
+		this(buffer, offsets, new Task[0], version);
+	}
+
+	private MappedTaskSnapshot(ByteBuffer buffer, int[] offsets, Task[] addedTasks, long version) {
+		super(version);
+		assert(buffer != null);
+		assert(offsets != null);
+
+		this.buffer = buffer;
+		this.offsets = offsets;
+		this.addedTasks = addedTasks;
+	}
+
+	@Override
+	public synchronized Task get(int index) {
+		if (tasks != null) {
+			return tasks[index];
+		}
+		if (offsets[index] < 0) {
+			return addedTasks[-1 - offsets[index]];
+		}
+
+		try {
+			return BinaryTaskCodec.readRecord(buffer, offsets[index]);
+		} catch (IOException e) {
+			throw new IllegalStateException(ERROR_TASK_NOT_READ, e);
+		}
+	}
+
+	@Override
+	public synchronized int size() {
+		if (tasks != null) {
+			return tasks.length;
+		}
+		return offsets.length;
+	}
+
+	/**
+	 * This method checks whether the snapshot has a task through the hash index, instead of reading every record
+	 * The hash index is built the first time a task is looked up, reading each record once.
+	 */
+	@Override
+	public synchronized boolean contains(Object obj) {
+		return indexOf(obj) >= 0;
+	}
+
+	@Override
+	public synchronized int indexOf(Object obj) {
+		if (!(obj instanceof Task)) {
+			return -1;
+		}
+		if (hashIndex == null) {
+			buildHashIndex();
+		}
+
+		long hash = obj.hashCode();
+		int position = Arrays.binarySearch(hashIndex, hash << 32);
+		if (position < 0) {
+			position = -position - 1;
+		}
+		for (; position < hashIndex.length && hashIndex[position] >> 32 == hash; position++) {
+			if (get((int)hashIndex[position]).equals(obj)) {
+				return (int)hashIndex[position];
+			}
+		}
+		return -1;
+	}
+
+	private void buildHashIndex() {
+		long[] builtIndex = new long[size()];
+		for (int i = 0; i < builtIndex.length; i++) {
+			builtIndex[i] = ((long)get(i).hashCode() << 32) | i;
+		}
+		Arrays.sort(builtIndex);
+		hashIndex = builtIndex;
+	}
+
+	/**
+	 * This method checks that the records are in the order of Task.compareTo without equal tasks, 
+	 * as tasks are found by their dates and positions through that order, while a task list converted from another format 
+	 * is in the order of that format. The hash index is built at the same time, as every record is read.
+	 *
+	 * @return	true if the records are in order
+	 */
+	public synchronized boolean isSorted() {
+		long[] builtIndex = new long[size()];
+		Task previousTask = null;
+		for (int i = 0; i < builtIndex.length; i++) {
+			Task task = get(i);
+			if (previousTask != null && previousTask.compareTo(task) >= 0) {
+				return false;
+			}
+			builtIndex[i] = ((long)task.hashCode() << 32) | i;
+			previousTask = task;
+		}
+		Arrays.sort(builtIndex);
+		hashIndex = builtIndex;
+		return true;
+	}
+
+	/**
+	 * This method finds the tasks which are scheduled at some time within a range, as DateIndex.findBetween does
+	 * Events are ordered by their start and deadlines by their end, so only the events starting before the range ends
+	 * have their end read, and only the deadlines within the range are read.
+	 *
+	 * @param from	the start of the range
+	 * @param to	the end of the range, which is included
+	 * @return		the tasks within the range, in order
+	 */
+	public synchronized ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+		assert(from != null && to != null);
+
+		ArrayList<Task> foundTasks = new ArrayList<Task>();
+		int eventCount = findFirstWithoutStart();
+		int scheduledCount = findFirstWithoutEnd(eventCount);
+
+		int startedEventCount = findFirstStartAfter(to, eventCount);
+		for (int i = 0; i < startedEventCount; i++) {
+			if (!getEnd(i).isBefore(from)) {
+				foundTasks.add(get(i));
+			}
+		}
+		for (int i = findFirstEndFrom(from, eventCount, scheduledCount); i < scheduledCount && !getEnd(i).isAfter(to); i++) {
+			foundTasks.add(get(i));
+		}
+		return foundTasks;
+	}
+
+	/**
+	 * Following methods find the first task of each part of the task list by binary search,
+	 * as events come before deadlines, which come before unscheduled tasks
+	 */
+	private int findFirstWithoutStart() {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getStart(middle) != null) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int findFirstWithoutEnd(int low) {
+		int high = size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getEnd(middle) != null) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int findFirstStartAfter(LocalDateTime to, int eventCount) {
+		int low = 0;
+		int high = eventCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (!getStart(middle).isAfter(to)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int findFirstEndFrom(LocalDateTime from, int low, int high) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getEnd(middle).isBefore(from)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private LocalDateTime getStart(int index) {
+		if (tasks != null || offsets[index] < 0) {
+			return get(index).getStartDateTime();
+		}
+
+		try {
+			return BinaryTaskCodec.readRecordStart(buffer, offsets[index]);
+		} catch (IOException e) {
+			throw new IllegalStateException(ERROR_TASK_NOT_READ, e);
+		}
+	}
+
+	private LocalDateTime getEnd(int index) {
+		if (tasks != null || offsets[index] < 0) {
+			return get(index).getEndDateTime();
+		}
+
+		try {
+			return BinaryTaskCodec.readRecordEnd(buffer, offsets[index]);
+		} catch (IOException e) {
+			throw new IllegalStateException(ERROR_TASK_NOT_READ, e);
+		}
+	}
+
+	/**
+	 * This method searches for the tasks containing all of the given keywords in their names, as KeywordIndex.search does
+	 * The trigram index is built the first time the names are searched, reading each record once.
+	 *
+	 * @param keywords	the keywords to search for in the task names, ignoring case
+	 * @return			the tasks containing all of the keywords, in no order
+	 */
+	public synchronized HashSet<Task> search(String[] keywords) {
+		return keywordIndex.search(keywords, this);
+	}
+
+	/**
+	 * This method makes a snapshot of the task list after it is modified, which shares the records of this snapshot
+	 * Only the records of the removed tasks and the positions of the added tasks are looked up,
+	 * so the records which are left are not read.
+	 *
+	 * @param removedTasks	the tasks of this snapshot which were removed
+	 * @param addedTasks	the tasks which were added, in order, which are not in this snapshot unless they were removed
+	 * @param version		the version of the modified task list
+	 * @return				the snapshot of the modified task list
+	 */
+	public synchronized MappedTaskSnapshot modify(Collection<Task> removedTasks, Collection<Task> addedTasks, long version) {
+		assert(tasks == null && this.addedTasks.length == 0);
+
+		BitSet removedRecords = new BitSet(offsets.length);
+		for (Task task : removedTasks) {
+			int index = indexOf(task);
+			if (index >= 0) {
+				removedRecords.set(index);
+			}
+		}
+
+		Task[] sortedAddedTasks = addedTasks.toArray(new Task[addedTasks.size()]);
+		int[] modifiedOffsets = new int[offsets.length - removedRecords.cardinality() + sortedAddedTasks.length];
+		int modifiedCount = 0;
+		int index = 0;
+		for (int i = 0; i < sortedAddedTasks.length; i++) {
+			// A task equal to a removed record is found at the position of that record
+			int position = Collections.binarySearch(this, sortedAddedTasks[i]);
+			if (position < 0) {
+				position = -position - 1;
+			}
+			for (; index < position; index++) {
+				if (!removedRecords.get(index)) {
+					modifiedOffsets[modifiedCount++] = offsets[index];
+				}
+			}
+			modifiedOffsets[modifiedCount++] = -1 - i;
+		}
+		for (; index < offsets.length; index++) {
+			if (!removedRecords.get(index)) {
+				modifiedOffsets[modifiedCount++] = offsets[index];
+			}
+		}
+
+		return new MappedTaskSnapshot(buffer, modifiedOffsets, sortedAddedTasks, version);
+	}
+
+	/**
+	 * This method reads every task from the file and releases the file, so the snapshot is held wholly in memory
+	 *
+	 * @return				the tasks in the snapshot, in order
+	 * @throws IOException	if a task could not be read
+	 */
+	public synchronized Task[] materialize() throws IOException {
+		if (tasks == null) {
+			Task[] readTasks = new Task[offsets.length];
+			for (int i = 0; i < offsets.length; i++) {
+				if (offsets[i] < 0) {
+					readTasks[i] = addedTasks[-1 - offsets[i]];
+				} else {
+					readTasks[i] = BinaryTaskCodec.readRecord(buffer, offsets[i]);
+				}
+			}
+
+			tasks = readTasks;
+			buffer = null;
+			offsets = null;
+			addedTasks = null;
+		}
+		return tasks;
+	}
+
+	public synchronized boolean isMaterialized() {
+		return tasks != null;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+//@@author A0100081E
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.zip.Deflater;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
+/**
+ * StorageBenchmark compares the size of TaskStorage in each format and compression level
+ * against how long it takes to write and read.
+ *
+ * Usage: java StorageBenchmark [number of tasks] [directory], i.e. a directory on the network home directory
+ */
+public class StorageBenchmark {
+	private static final int DEFAULT_TASK_COUNT = 100000;
+	private static final String DEFAULT_DIRECTORY = "./";
+	private static final String BENCHMARK_FILENAME = "StorageBenchmark.tmp";
+	private static final int RUN_COUNT = 5;
+	private static final int[] COMPRESSION_LEVELS = {Deflater.BEST_SPEED, 3, 6, Deflater.BEST_COMPRESSION};
+
+	private static final String MESSAGE_HEADER = "%-12s %12s %8s %12s %12s%n";
+	private static final String MESSAGE_RESULT = "%-12s %12d %7.1fx %12.1f %12.1f%n";
+
+	public static void main(String[] args) throws IOException {
+		int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+		String directory = args.length > 1 ? args[1] : DEFAULT_DIRECTORY;
+		File file = new File(directory, BENCHMARK_FILENAME);
+
+		TypeAdapter<Task> taskAdapter = new GsonBuilder()
+				.registerTypeAdapter(Task.class, new TaskTypeAdapter())
+				.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+				.create()
+				.getAdapter(Task.class);
+		TaskCodec jsonCodec = new JsonTaskCodec(taskAdapter);
+		TaskCodec binaryCodec = new BinaryTaskCodec();
+		ArrayList<Task> tasks = createTasks(taskCount);
+
+		System.out.printf("Writing and reading %d tasks in %s, best of %d runs%n", taskCount, file.getAbsoluteFile().getParent(), RUN_COUNT);
+		System.out.printf(MESSAGE_HEADER, "Format", "Bytes", "Ratio", "Write (ms)", "Read (ms)");
+
+		long uncompressedLength = benchmark(".json", jsonCodec, tasks, file, 0);
+		for (int level : COMPRESSION_LEVELS) {
+			benchmark(".json.gz:" + level, new GzipTaskCodec(jsonCodec, level), tasks, file, uncompressedLength);
+		}
+		benchmark(".bin", binaryCodec, tasks, file, uncompressedLength);
+		for (int level : COMPRESSION_LEVELS) {
+			benchmark(".bin.gz:" + level, new GzipTaskCodec(binaryCodec, level), tasks, file, uncompressedLength);
+		}
+
+		file.delete();
+	}
+
+	/**
+	 * This method creates tasks like those of a user, with names which repeat words and dates which are close together
+	 */
+	private static ArrayList<Task> createTasks(int taskCount) {
+		String[] words = {"meeting", "project", "CS2103", "submit", "report", "lecture", "tutorial", "dinner", "with", "team"};
+		LocalDateTime date = LocalDateTime.of(2015, 10, 1, 9, 0);
+		ArrayList<Task> tasks = new ArrayList<Task>(taskCount);
+
+		for (int i = 0; i < taskCount; i++) {
+			String name = words[i % words.length] + " " + words[(i * 7) % words.length] + " " + i;
+			LocalDateTime taskDate = date.plusMinutes(i * 37L);
+			if (i % 3 == 0) {
+				tasks.add(new Task(name, taskDate, taskDate.plusHours(2), i % 5 == 0));
+			} else if (i % 3 == 1) {
+				tasks.add(new Task(name, taskDate, i % 5 == 0));
+			} else {
+				tasks.add(new Task(name, i % 5 == 0));
+			}
+		}
+		return tasks;
+	}
+
+	/**
+	 * This method writes and reads the tasks in a format, printing the fastest time of each
+	 *
+	 * @param format				the name of the format
+	 * @param codec					the format to benchmark
+	 * @param tasks					the tasks to write and read
+	 * @param file					the file to write to
+	 * @param uncompressedLength	the length of the uncompressed JSON to compare to, or 0 if this is it
+	 * @return						the length of the file written
+	 * @throws IOException			if the file could not be written or read
+	 */
+	private static long benchmark(String format, TaskCodec codec, ArrayList<Task> tasks, File file,
+			long uncompressedLength) throws IOException {
+		long bestWriteTime = Long.MAX_VALUE;
+		long bestReadTime = Long.MAX_VALUE;
+
+		for (int run = 0; run < RUN_COUNT; run++) {
+			long writeStart = System.nanoTime();
+			try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+				OutputStream out = new BufferedOutputStream(fileOutputStream);
+				TaskCodec.TaskWriter taskWriter = codec.newWriter(out);
+				for (Task task : tasks) {
+					taskWriter.write(task);
+				}
+				taskWriter.finish();
+				fileOutputStream.getChannel().force(true);
+			}
+			bestWriteTime = Math.min(bestWriteTime, System.nanoTime() - writeStart);
+
+			long readStart = System.nanoTime();
+			int taskCount = 0;
+			try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+				TaskCodec.TaskReader taskReader = codec.newReader(in);
+				while (taskReader.hasNext()) {
+					taskReader.next();
+					taskCount++;
+				}
+			}
+			bestReadTime = Math.min(bestReadTime, System.nanoTime() - readStart);
+
+			if (taskCount != tasks.size()) {
+				throw new IOException(format + " read " + taskCount + " of " + tasks.size() + " tasks.");
+			}
+		}
+
+		long length = file.length();
+		double ratio = uncompressedLength == 0 ? 1 : (double) uncompressedLength / length;
+		System.out.printf(MESSAGE_RESULT, format, length, ratio, bestWriteTime / 1e6, bestReadTime / 1e6);
+		return length;
+	}
+}
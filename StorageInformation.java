@@ -1,8 +1,14 @@
 //@@author A0100081E
+import java.util.ArrayList;
+
 public class StorageInformation {
 	private String fileDirectory;
 	private String fileName;
 	private String fileType;
+	// Month shards of the Storage, or null if the Storage is a single file
+	private ArrayList<StorageShard> shards;
+	// Bloom filter of the archived tasks, or null if it has not been built for the archive
+	private ArchiveFilter archiveFilter;
 	
 	public String getFileDirectory() {
 		return fileDirectory;
@@ -16,6 +22,14 @@ public class StorageInformation {
 		return fileType;
 	}
 	
+	public ArrayList<StorageShard> getShards() {
+		return shards;
+	}
+	
+	public ArchiveFilter getArchiveFilter() {
+		return archiveFilter;
+	}
+	
 	public void setFileDirectory(String fileDirectory) {
 		this.fileDirectory = fileDirectory;
 	}
@@ -27,4 +41,12 @@ public class StorageInformation {
 	public void setFileType(String fileType) {
 		this.fileType = fileType;
 	}
+	
+	public void setShards(ArrayList<StorageShard> shards) {
+		this.shards = shards;
+	}
+	
+	public void setArchiveFilter(ArchiveFilter archiveFilter) {
+		this.archiveFilter = archiveFilter;
+	}
 }
@@ -0,0 +1,867 @@
+//@@author A0100081E
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * StorageJournal is an append-only log of the mutations made to the Storage since its last checkpoint.
+ * Each mutation is written as a single line so that it costs one small append instead of a rewrite of the Storage.
+ * Every line is framed with the length and CRC32C checksum of its entry, so damaged entries can be detected and skipped.
+ * With group commit, entries are queued and a commit thread writes them with a single flush per window or per batch.
+ */
+public class StorageJournal {
+	public enum Operation {
+		ADD, REMOVE, UPDATE, CHECKPOINT
+	}
+
+	/**
+	 * Entry is a single mutation recorded in the journal
+	 */
+	public static class Entry {
+		private Operation operation;
+		private Task task;
+		private Task updatedTask;
+		// Length and checksum of the Storage written at a checkpoint
+		private Long storageLength;
+		private Long storageChecksum;
+
+		public Entry(Operation operation, Task task) {
+			this.operation = operation;
+			this.task = task;
+		}
+
+		public Entry(Task task, Task updatedTask) {
+			this.operation = Operation.UPDATE;
+			this.task = task;
+			this.updatedTask = updatedTask;
+		}
+
+		public Entry(long storageLength, long storageChecksum) {
+			this.operation = Operation.CHECKPOINT;
+			this.storageLength = storageLength;
+			this.storageChecksum = storageChecksum;
+		}
+
+		public Operation getOperation() {
+			return operation;
+		}
+
+		public Task getTask() {
+			return task;
+		}
+
+		public Task getUpdatedTask() {
+			return updatedTask;
+		}
+
+		public long getStorageLength() {
+			return storageLength;
+		}
+
+		public long getStorageChecksum() {
+			return storageChecksum;
+		}
+
+		public boolean isValid() {
+			if (operation == Operation.CHECKPOINT) {
+				return storageLength != null && storageChecksum != null;
+			}
+			if (operation == Operation.UPDATE && (updatedTask == null || updatedTask.getName() == null)) {
+				return false;
+			}
+			return operation != null && task != null && task.getName() != null;
+		}
+	}
+
+	// Error Messages
+	public static final String ERROR_JOURNAL_WRITER_UNINITIALIZED = "Journal writer could not be initialized.";
+	public static final String ERROR_JOURNAL_WRITER_NOT_CLOSED = "Journal writer could not be closed.";
+	public static final String ERROR_JOURNAL_NOT_READ = "Journal could not be read.";
+	public static final String ERROR_ENTRY_NOT_WRITTEN = "Journal entry could not be written.";
+	public static final String ERROR_COMMIT_INTERRUPTED = "Journal commit thread could not be stopped.";
+
+	private File file;
+	private Gson gson;
+	// The journal is written through one channel for as long as it is open, at the end of what is written so far
+	private FileChannel channel;
+	private long writePosition;
+	// Frames are encoded into one direct buffer that is reused for every write
+	private ByteBuffer writeBuffer;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	private int size;
+	private static final Logger log = Logger.getLogger(Ui.LOG_NAME);
+	// Format of a line in the journal: <length of entry> <checksum of entry> <entry>
+	private static final String FRAME_FORMAT = "%d %08x ";
+	private static final String FRAME_SEPARATOR = " ";
+	private static final byte FRAME_END = '\n';
+	private static final String CORRUPT_TYPE = ".corrupt";
+	private int damagedEntryCount;
+	// Variables for group commit, where a commit window of 0 writes every entry as it is appended
+	private long commitWindow = 0;
+	private int commitBatchSize = 1;
+	private ArrayList<Entry> pendingEntries = new ArrayList<Entry>();
+	private Thread commitThread;
+	private boolean isCommitStopped;
+	private IOException commitFailure;
+	// Variables for forcing the journal to the disk
+	private DurabilityPolicy durability = DurabilityPolicy.NONE;
+	private long lastSyncTime = 0;
+	// Under a periodic policy, writes which were not forced are forced on a separate thread when the period ends
+	private boolean isSyncPending;
+	private Thread syncThread;
+	private boolean isSyncStopped;
+	// Lock of the Storage when the journal is shared with other instances, and how the changes of other instances are read
+	private StorageLock lock;
+	private Runnable refresher;
+	// Generation of the Storage this journal was last up to date with, and its length at that generation
+	private long generation = 0;
+	private long generationLength = 0;
+	private static final long LOCK_RETRY_INTERVAL = 10;
+
+	public StorageJournal(File file, Gson gson) {
+		assert(file != null);
+		assert(gson != null);
+
+		this.file = file;
+		this.gson = gson;
+		this.size = 0;
+		this.damagedEntryCount = 0;
+	}
+
+	/**
+	 * This method opens the journal for appending, creating it if it does not exist
+	 *
+	 * @throws Exception	if the journal could not be opened
+	 */
+	public void open() throws Exception {
+		openChannel();
+
+		if (commitWindow > 0) {
+			startCommitThread();
+		}
+		if (durability.isPeriodic()) {
+			startSyncThread();
+		}
+
+		log.log(Level.INFO, "Journal is successfully opened.\n");
+	}
+
+	private synchronized void openChannel() throws Exception {
+		try {
+			channel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			writePosition = channel.size();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Error in setting journal writer.\n");
+			throw new Exception(ERROR_JOURNAL_WRITER_UNINITIALIZED);
+		}
+
+		if (writeBuffer == null) {
+			writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+		}
+		writeBuffer.clear();
+	}
+
+	/**
+	 * This method sets the journal to queue entries and commit them on a separate thread
+	 * Entries are committed once the oldest has waited for the commit window or once a batch is queued,
+	 * so at most a commit window of entries can be lost if the program crashes.
+	 * Group commit takes effect when the journal is next opened.
+	 *
+	 * @param window	the longest time in milliseconds an entry is queued, or 0 to write every entry as it is appended
+	 * @param batchSize	the number of queued entries that are committed without waiting for the window
+	 */
+	public synchronized void setGroupCommit(long window, int batchSize) {
+		assert(window >= 0);
+		assert(batchSize > 0);
+
+		commitWindow = window;
+		commitBatchSize = batchSize;
+	}
+
+	public synchronized void setDurability(DurabilityPolicy durability) {
+		assert(durability != null);
+
+		this.durability = durability;
+	}
+
+	/**
+	 * This method forces the flushed entries to the disk if the durability policy needs it
+	 * Entries which are not forced under a periodic policy are left to the sync thread, which forces them when the period ends.
+	 *
+	 * @param isForced		true to force the entries unless the policy is NONE, i.e. before the journal is closed
+	 * @throws IOException	if the entries could not be forced
+	 */
+	private void sync(boolean isForced) throws IOException {
+		long time = System.currentTimeMillis();
+		if (!(isForced && durability.isSynced()) && !durability.isSyncNeeded(lastSyncTime, time)) {
+			if (durability.isPeriodic() && !isSyncPending) {
+				isSyncPending = true;
+				notifyAll();
+			}
+			return;
+		}
+
+		long syncStart = System.nanoTime();
+		channel.force(false);
+		lastSyncTime = time;
+		isSyncPending = false;
+
+		log.log(Level.FINE, "Journal forced in " + (System.nanoTime() - syncStart) / 1000 + " us with " + durability + ".\n");
+	}
+
+	private void startSyncThread() {
+		isSyncStopped = false;
+		syncThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runSyncThread();
+			}
+		}, "StorageJournal-sync");
+		syncThread.setDaemon(true);
+		syncThread.start();
+	}
+
+	/**
+	 * This method forces the entries which were not forced when they were written, once the period since the last force ends
+	 * A failure is kept and reported by the next append, as there is no caller to report it to.
+	 */
+	private synchronized void runSyncThread() {
+		try {
+			while (!isSyncStopped) {
+				if (!isSyncPending || channel == null) {
+					wait();
+					continue;
+				}
+
+				long syncDelay = durability.getSyncDelay(lastSyncTime, System.currentTimeMillis());
+				if (syncDelay > 0) {
+					wait(syncDelay);
+					continue;
+				}
+
+				try {
+					sync(true);
+				} catch (IOException e) {
+					log.log(Level.WARNING, "Journal could not be forced at the end of the period.\n");
+					commitFailure = e;
+					isSyncPending = false;
+				}
+			}
+		} catch (InterruptedException e) {
+			isSyncStopped = true;
+		}
+	}
+
+	private void stopSyncThread() throws Exception {
+		if (syncThread == null) {
+			return;
+		}
+
+		synchronized (this) {
+			isSyncStopped = true;
+			notifyAll();
+		}
+
+		try {
+			syncThread.join();
+		} catch (InterruptedException e) {
+			log.log(Level.WARNING, "Journal sync thread could not be stopped.\n");
+			throw new Exception(ERROR_COMMIT_INTERRUPTED);
+		}
+		syncThread = null;
+	}
+
+	private void startCommitThread() {
+		isCommitStopped = false;
+		commitThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runCommitThread();
+			}
+		}, "StorageJournal-commit");
+		commitThread.setDaemon(true);
+		commitThread.start();
+	}
+
+	private void runCommitThread() {
+		while (waitForCommit()) {
+			while (!commitWithLock()) {
+				if (!waitForLock()) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method waits until the oldest queued entry has waited for the commit window or a batch is queued
+	 *
+	 * @return	false if the commit thread is stopped, where the queued entries are committed by close()
+	 */
+	private synchronized boolean waitForCommit() {
+		try {
+			while (!isCommitStopped && pendingEntries.isEmpty()) {
+				wait();
+			}
+			if (!isCommitStopped && pendingEntries.size() < commitBatchSize) {
+				wait(commitWindow);
+			}
+		} catch (InterruptedException e) {
+			isCommitStopped = true;
+		}
+		return !isCommitStopped;
+	}
+
+	private synchronized boolean waitForLock() {
+		try {
+			if (!isCommitStopped) {
+				wait(LOCK_RETRY_INTERVAL);
+			}
+		} catch (InterruptedException e) {
+			isCommitStopped = true;
+		}
+		return !isCommitStopped;
+	}
+
+	/**
+	 * This method commits the queued entries, holding the lock of the Storage if the journal is shared with other instances
+	 * The lock is only tried, so that the commit thread never waits on the lock while the Storage is being closed.
+	 * If another instance modified the Storage since this journal was last up to date, its entries are replayed first
+	 * through the refresher, which writes the queued entries after its entries through refresh().
+	 *
+	 * @return	false if the lock is held elsewhere and the entries are still queued
+	 */
+	private boolean commitWithLock() {
+		StorageLock storageLock = getLock();
+		if (storageLock == null) {
+			synchronized (this) {
+				commitPendingEntries();
+			}
+			return true;
+		}
+
+		try {
+			if (!storageLock.tryLock()) {
+				return false;
+			}
+			try {
+				// The refresher reads the Storage, so it is run without holding the journal
+				Runnable storageRefresher = getRefresher();
+				if (storageRefresher != null && storageLock.getGeneration() != getGeneration()) {
+					storageRefresher.run();
+				}
+				synchronized (this) {
+					if (!pendingEntries.isEmpty() && storageLock.getGeneration() == generation) {
+						commitPendingEntries();
+						storageLock.advance(false);
+						setGeneration(storageLock.getGeneration());
+					}
+				}
+			} finally {
+				storageLock.unlock();
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Journal entries could not be committed with the lock of the Storage.\n");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method shares the journal with other instances, which coordinate through the lock of the Storage
+	 * Entries are then always written at the end of the journal, after any entries the other instances appended.
+	 *
+	 * @param lock	the lock of the Storage, or null if the journal is not shared
+	 */
+	public synchronized void setLock(StorageLock lock) {
+		this.lock = lock;
+	}
+
+	private synchronized StorageLock getLock() {
+		return lock;
+	}
+
+	/**
+	 * This method sets how the commit thread reads the changes of other instances before it commits the queued entries
+	 * The refresher is run while the lock of the Storage is held, and calls refresh() once it has replayed the changes.
+	 *
+	 * @param refresher	the refresher of the Storage, or null to leave the entries queued until the Storage is next read
+	 */
+	public synchronized void setRefresher(Runnable refresher) {
+		this.refresher = refresher;
+	}
+
+	private synchronized Runnable getRefresher() {
+		return refresher;
+	}
+
+	private void stopCommitThread() throws Exception {
+		if (commitThread == null) {
+			return;
+		}
+
+		synchronized (this) {
+			isCommitStopped = true;
+			notifyAll();
+		}
+
+		try {
+			commitThread.join();
+		} catch (InterruptedException e) {
+			log.log(Level.WARNING, "Journal commit thread could not be stopped.\n");
+			throw new Exception(ERROR_COMMIT_INTERRUPTED);
+		}
+		commitThread = null;
+	}
+
+	/**
+	 * This method writes every queued entry to the journal with a single flush
+	 * A failure is kept and reported by the next append, as there is no caller to report it to.
+	 */
+	private synchronized void commitPendingEntries() {
+		if (pendingEntries.isEmpty() || channel == null) {
+			return;
+		}
+
+		try {
+			for (Entry entry : pendingEntries) {
+				writeFrame(entry);
+			}
+			flush();
+			sync(false);
+		} catch (IOException e) {
+			log.log(Level.WARNING, pendingEntries.size() + " journal entries could not be committed.\n");
+			commitFailure = e;
+		}
+
+		pendingEntries.clear();
+	}
+
+	/**
+	 * This method writes every queued entry to the journal before returning, i.e. before the program exits
+	 *
+	 * @throws Exception	if the entries could not be written
+	 */
+	public synchronized void commit() throws Exception {
+		commitPendingEntries();
+		throwCommitFailure();
+	}
+
+	private void throwCommitFailure() throws Exception {
+		if (commitFailure != null) {
+			commitFailure = null;
+			throw new Exception(ERROR_ENTRY_NOT_WRITTEN);
+		}
+	}
+
+	/**
+	 * This method closes the journal
+	 *
+	 * @throws Exception	if the journal could not be closed
+	 */
+	public void close() throws Exception {
+		stopCommitThread();
+		stopSyncThread();
+
+		synchronized (this) {
+			commitPendingEntries();
+			if (channel != null) {
+				try {
+					sync(true);
+				} catch (IOException e) {
+					log.log(Level.WARNING, "Journal could not be forced before closing.\n");
+				}
+			}
+			closeWriter();
+		}
+	}
+
+	private void closeWriter() throws Exception {
+		if (channel == null) {
+			return;
+		}
+
+		try {
+			flush();
+			channel.close();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Error in closing journal writer.\n");
+			throw new Exception(ERROR_JOURNAL_WRITER_NOT_CLOSED);
+		}
+
+		channel = null;
+
+		log.log(Level.INFO, "Journal is successfully closed.\n");
+	}
+
+	/**
+	 * This method reads and verifies every entry in the journal in the order they were appended
+	 * Entries which fail verification are skipped and quarantined to the corrupt file of the journal.
+	 *
+	 * @return				the entries in the journal which passed verification
+	 * @throws Exception	if the journal could not be read
+	 */
+	public ArrayList<Entry> readEntries() throws Exception {
+		ArrayList<Entry> entries = readEntriesFrom(0);
+
+		size = entries.size();
+
+		log.log(Level.INFO, "Journal successfully read with " + size + " entries.\n");
+		return entries;
+	}
+
+	/**
+	 * This method reads and verifies the entries appended after a position in the journal, 
+	 * i.e. the entries appended by another instance since the journal was last read or written
+	 *
+	 * @param position		the length of the journal that was already read
+	 * @return				the entries after the position which passed verification
+	 * @throws Exception	if the journal could not be read
+	 */
+	public ArrayList<Entry> readEntriesFrom(long position) throws Exception {
+		ArrayList<Entry> entries = new ArrayList<Entry>();
+		ArrayList<String> damagedLines = new ArrayList<String>();
+
+		if (!file.exists()) {
+			return entries;
+		}
+
+		try (FileInputStream journalInputStream = new FileInputStream(file.getAbsoluteFile())) {
+			journalInputStream.getChannel().position(position);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(journalInputStream, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+
+				Entry entry = readFrame(line);
+				if (entry == null) {
+					damagedLines.add(line);
+				} else {
+					entries.add(entry);
+				}
+			}
+		} catch (FileNotFoundException e) {
+			return entries;
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Journal could not be read.\n");
+			throw new Exception(ERROR_JOURNAL_NOT_READ);
+		}
+
+		damagedEntryCount = damagedLines.size();
+
+		if (!damagedLines.isEmpty()) {
+			log.log(Level.WARNING, damagedEntryCount + " damaged journal entries were skipped.\n");
+			quarantine(damagedLines);
+		}
+
+		return entries;
+	}
+
+	/**
+	 * This method continues writing at the end of the journal after another instance appended to it or emptied it
+	 *
+	 * @param appendedEntryCount	the number of entries the other instance appended, which were read
+	 * @throws Exception			if the end of the journal could not be found
+	 */
+	public synchronized void refresh(int appendedEntryCount) throws Exception {
+		size += appendedEntryCount;
+		if (channel == null) {
+			return;
+		}
+
+		try {
+			writePosition = channel.size();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Journal could not be refreshed.\n");
+			throw new Exception(ERROR_JOURNAL_NOT_READ);
+		}
+		// Entries queued before the refresh are written after the other instance's entries
+		if (!pendingEntries.isEmpty()) {
+			commitPendingEntries();
+			if (lock != null) {
+				try {
+					lock.advance(false);
+				} catch (IOException e) {
+					log.log(Level.WARNING, "Journal could not advance the generation of the Storage.\n");
+					throw new Exception(ERROR_JOURNAL_NOT_READ);
+				}
+			}
+		}
+		throwCommitFailure();
+	}
+
+	/**
+	 * This method records that the journal is up to date with a generation of the Storage, at its current length
+	 *
+	 * @param generation	the generation of the Storage
+	 */
+	public synchronized void setGeneration(long generation) {
+		this.generation = generation;
+		generationLength = writePosition;
+	}
+
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return	the length of the journal when it was last up to date, from where the entries of other instances are read
+	 */
+	public synchronized long getGenerationLength() {
+		return generationLength;
+	}
+
+	/**
+	 * This method verifies the length and checksum of a line in the journal and reads its entry
+	 *
+	 * @param line	the line in the journal
+	 * @return		the entry in the line, or null if the line is damaged
+	 */
+	private Entry readFrame(String line) {
+		String[] frame = line.split(FRAME_SEPARATOR, 3);
+		if (frame.length < 3) {
+			return null;
+		}
+
+		try {
+			byte[] payload = frame[2].getBytes(StandardCharsets.UTF_8);
+			int length = Integer.parseInt(frame[0]);
+			long checksum = Long.parseLong(frame[1], 16);
+
+			if (length != payload.length || checksum != getChecksum(payload)) {
+				return null;
+			}
+
+			Entry entry = gson.fromJson(frame[2], Entry.class);
+			if (entry == null || !entry.isValid()) {
+				return null;
+			}
+			return entry;
+		} catch (NumberFormatException | JsonParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * This method appends damaged lines to the corrupt file of the journal so that they can be recovered manually
+	 *
+	 * @param damagedLines	the lines which failed verification
+	 */
+	private void quarantine(ArrayList<String> damagedLines) {
+		File corruptFile = new File(file.getPath() + CORRUPT_TYPE);
+
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(corruptFile, true), StandardCharsets.UTF_8))) {
+			for (String line : damagedLines) {
+				writer.write(line);
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Damaged journal entries could not be quarantined.\n");
+		}
+	}
+
+	private static long getChecksum(byte[] payload) {
+		CRC32C checksum = new CRC32C();
+		checksum.update(payload, 0, payload.length);
+		return checksum.getValue();
+	}
+
+	/**
+	 * This method appends a single entry to the end of the journal
+	 *
+	 * @param operation		the mutation made to the Storage
+	 * @param task			the task that was mutated
+	 * @throws Exception	if the entry could not be written
+	 */
+	public void append(Operation operation, Task task) throws Exception {
+		append(new Entry(operation, task));
+	}
+
+	/**
+	 * This method appends a single entry to the end of the journal, framed with its length and checksum
+	 *
+	 * @param entry			the entry to append
+	 * @throws Exception	if the entry could not be written
+	 */
+	public synchronized void append(Entry entry) throws Exception {
+		assert(channel != null);
+
+		// A checkpoint is written at once, after the entries queued before it
+		if (commitThread != null && entry.getOperation() != Operation.CHECKPOINT) {
+			enqueue(Collections.singletonList(entry));
+			return;
+		}
+		commitPendingEntries();
+
+		try {
+			writeFrame(entry);
+			flush();
+			sync(false);
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Journal entry could not be written.\n");
+			throw new Exception(ERROR_ENTRY_NOT_WRITTEN);
+		}
+
+		size++;
+	}
+
+	/**
+	 * This method appends many entries to the end of the journal with a single flush
+	 *
+	 * @param entries		the entries to append, in order
+	 * @throws Exception	if the entries could not be written
+	 */
+	public synchronized void append(Collection<Entry> entries) throws Exception {
+		assert(channel != null);
+
+		if (commitThread != null) {
+			enqueue(entries);
+			return;
+		}
+
+		try {
+			for (Entry entry : entries) {
+				writeFrame(entry);
+			}
+			flush();
+			sync(false);
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Journal entries could not be written.\n");
+			throw new Exception(ERROR_ENTRY_NOT_WRITTEN);
+		}
+
+		size += entries.size();
+	}
+
+	/**
+	 * This method queues entries to be written by the commit thread, waking it to start the commit window
+	 * when the first entry is queued, and again once a batch is queued
+	 *
+	 * @param entries		the entries to queue, in order
+	 * @throws Exception	if the last commit failed
+	 */
+	private void enqueue(Collection<Entry> entries) throws Exception {
+		throwCommitFailure();
+
+		boolean isQueueEmpty = pendingEntries.isEmpty();
+		pendingEntries.addAll(entries);
+		size += entries.size();
+
+		if (isQueueEmpty || pendingEntries.size() >= commitBatchSize) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * This method encodes an entry as a line into the write buffer, writing the buffer out first if it is full
+	 */
+	private void writeFrame(Entry entry) throws IOException {
+		byte[] payload = gson.toJson(entry).getBytes(StandardCharsets.UTF_8);
+		byte[] header = String.format(FRAME_FORMAT, payload.length, getChecksum(payload)).getBytes(StandardCharsets.UTF_8);
+		int frameLength = header.length + payload.length + 1;
+
+		if (frameLength > writeBuffer.remaining()) {
+			flush();
+		}
+		if (frameLength > writeBuffer.capacity()) {
+			writeBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(frameLength) << 1);
+		}
+
+		writeBuffer.put(header);
+		writeBuffer.put(payload);
+		writeBuffer.put(FRAME_END);
+	}
+
+	/**
+	 * This method writes the encoded lines in the write buffer at the end of the journal
+	 */
+	private void flush() throws IOException {
+		writeBuffer.flip();
+		if (lock != null && writeBuffer.hasRemaining()) {
+			// Another instance may have appended to the journal since it was last written
+			writePosition = channel.size();
+		}
+		while (writeBuffer.hasRemaining()) {
+			writePosition += channel.write(writeBuffer, writePosition);
+		}
+		writeBuffer.clear();
+	}
+
+	/**
+	 * This method empties the journal after its entries have been checkpointed into the Storage
+	 *
+	 * @throws Exception	if the journal could not be emptied
+	 */
+	public synchronized void clear() throws Exception {
+		// Queued entries are already in the checkpointed Storage, so they do not need to be written
+		pendingEntries.clear();
+		if (channel == null) {
+			openChannel();
+		}
+
+		try {
+			writeBuffer.clear();
+			channel.truncate(0);
+			writePosition = 0;
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Error in clearing journal.\n");
+			throw new Exception(ERROR_JOURNAL_WRITER_UNINITIALIZED);
+		}
+
+		size = 0;
+	}
+
+	/**
+	 * This method closes and deletes the journal
+	 *
+	 * @throws Exception	if the journal could not be closed
+	 */
+	public void delete() throws Exception {
+		close();
+
+		if (file.exists() && !file.delete()) {
+			log.log(Level.WARNING, "Journal could not be deleted.\n");
+		}
+		size = 0;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return	the entries which are queued and not yet written, in order
+	 */
+	public synchronized ArrayList<Entry> getPendingEntries() {
+		return new ArrayList<Entry>(pendingEntries);
+	}
+
+	public int getDamagedEntryCount() {
+		return damagedEntryCount;
+	}
+
+	public File getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,260 @@
+//@@author A0100081E
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StorageLock is the lock file of the Storage, which every instance of TaskBuddy locks before it modifies the Storage.
+ * The lock file holds a generation that is advanced whenever the Storage is modified, and the generation of the last checkpoint,
+ * so an instance can tell without reading the Storage whether another instance has modified it since it last looked.
+ * The file is locked by the instance, and the lock is reentrant for the thread holding it within the instance.
+ */
+public class StorageLock {
+	private static final int STATE_SIZE = 2 * Long.BYTES;
+	private static final long LOCK_RETRY_INTERVAL = 10;
+
+	private File file;
+	private FileChannel channel;
+	private FileLock fileLock;
+	private ReentrantLock threadLock = new ReentrantLock();
+	private ByteBuffer state = ByteBuffer.allocate(STATE_SIZE);
+	private long generation = 0;
+	private long checkpointGeneration = 0;
+
+	public StorageLock(File file) {
+		assert(file != null);
+
+		this.file = file;
+	}
+
+	/**
+	 * This method opens the lock file, creating it if it does not exist
+	 *
+	 * @throws IOException	if the lock file could not be opened
+	 */
+	public void open() throws IOException {
+		channel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * This method closes the lock file, which releases the lock if it is held
+	 *
+	 * @throws IOException	if the lock file could not be closed
+	 */
+	public void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+
+		channel.close();
+		channel = null;
+		fileLock = null;
+	}
+
+	/**
+	 * This method locks the Storage, waiting for any other instance or thread to unlock it, and reads the generations
+	 *
+	 * @throws IOException	if the lock file could not be locked or read
+	 */
+	public void lock() throws IOException {
+		assert(channel != null);
+
+		threadLock.lock();
+		if (threadLock.getHoldCount() > 1) {
+			return;
+		}
+
+		try {
+			fileLock = channel.lock();
+			readState();
+		} catch (IOException | RuntimeException e) {
+			unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * This method locks the Storage for a read within this instance, and reads the generations without locking the lock file,
+	 * so a read of the Storage which no other instance modified neither waits for other instances nor blocks them.
+	 * The generations are written in a single write, so a read which overlaps it only sees a change which is read again
+	 * with the lock file locked, through lockFile.
+	 *
+	 * @throws IOException	if the lock file could not be read
+	 */
+	public void lockForRead() throws IOException {
+		assert(channel != null);
+
+		threadLock.lock();
+		if (threadLock.getHoldCount() > 1) {
+			return;
+		}
+
+		try {
+			readState();
+		} catch (IOException | RuntimeException e) {
+			threadLock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * This method locks the lock file for the thread which locked the Storage for a read, and reads the generations again,
+	 * i.e. to read the changes of another instance
+	 *
+	 * @throws IOException	if the lock file could not be locked or read
+	 */
+	public void lockFile() throws IOException {
+		assert(threadLock.isHeldByCurrentThread());
+		if (fileLock != null) {
+			return;
+		}
+
+		fileLock = channel.lock();
+		readState();
+	}
+
+	/**
+	 * This method locks the Storage only if no other instance or thread holds the lock
+	 *
+	 * @return				true if the lock is held
+	 * @throws IOException	if the lock file could not be locked or read
+	 */
+	public boolean tryLock() throws IOException {
+		return tryLock(0);
+	}
+
+	/**
+	 * This method locks the Storage if no other instance or thread holds the lock, or releases it within the timeout
+	 *
+	 * @param timeout		the longest time in milliseconds to wait for the lock
+	 * @return				true if the lock is held
+	 * @throws IOException	if the lock file could not be locked or read
+	 */
+	public boolean tryLock(long timeout) throws IOException {
+		assert(channel != null);
+
+		long deadline = System.currentTimeMillis() + timeout;
+		try {
+			if (!threadLock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+				return false;
+			}
+		} catch (InterruptedException e) {
+			return false;
+		}
+		if (threadLock.getHoldCount() > 1) {
+			return true;
+		}
+
+		try {
+			fileLock = channel.tryLock();
+			while (fileLock == null) {
+				long remainingTime = deadline - System.currentTimeMillis();
+				if (remainingTime <= 0) {
+					threadLock.unlock();
+					return false;
+				}
+				Thread.sleep(Math.min(remainingTime, LOCK_RETRY_INTERVAL));
+				fileLock = channel.tryLock();
+			}
+			readState();
+		} catch (InterruptedException e) {
+			threadLock.unlock();
+			return false;
+		} catch (IOException | RuntimeException e) {
+			unlock();
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * This method unlocks the Storage once it has been unlocked as many times as it was locked
+	 *
+	 * @throws IOException	if the lock could not be released
+	 */
+	public void unlock() throws IOException {
+		assert(threadLock.isHeldByCurrentThread());
+
+		try {
+			if (threadLock.getHoldCount() == 1 && fileLock != null) {
+				fileLock.release();
+				fileLock = null;
+			}
+		} finally {
+			threadLock.unlock();
+		}
+	}
+
+	/**
+	 * This method advances the generation, so that other instances know the Storage was modified
+	 *
+	 * @param isCheckpoint	true if the Storage was checkpointed, i.e. its journal was emptied
+	 * @throws IOException	if the generation could not be written
+	 */
+	public void advance(boolean isCheckpoint) throws IOException {
+		assert(threadLock.isHeldByCurrentThread());
+
+		generation++;
+		if (isCheckpoint) {
+			checkpointGeneration = generation;
+		}
+
+		state.clear();
+		state.putLong(generation);
+		state.putLong(checkpointGeneration);
+		state.flip();
+		while (state.hasRemaining()) {
+			channel.write(state, state.position());
+		}
+	}
+
+	/**
+	 * This method reads the generations, where a new lock file starts at generation 0
+	 */
+	private void readState() throws IOException {
+		state.clear();
+		while (state.hasRemaining() && channel.read(state, state.position()) > 0) {
+		}
+		state.flip();
+
+		if (state.remaining() < STATE_SIZE) {
+			generation = 0;
+			checkpointGeneration = 0;
+		} else {
+			generation = state.getLong();
+			checkpointGeneration = state.getLong();
+		}
+	}
+
+	/**
+	 * @return	true if the lock file is locked, i.e. the Storage was not only locked for a read
+	 */
+	public boolean isFileLocked() {
+		return fileLock != null;
+	}
+
+	/**
+	 * @return	true if the current thread holds the lock once, i.e. it is not locked again within another lock
+	 */
+	public boolean isOutermost() {
+		return threadLock.getHoldCount() == 1;
+	}
+
+	public long getGeneration() {
+		return generation;
+	}
+
+	public long getCheckpointGeneration() {
+		return checkpointGeneration;
+	}
+
+	public File getFile() {
+		return file;
+	}
+}
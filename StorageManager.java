@@ -1,17 +1,51 @@
 //@@author A0100081E
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 
 /**
  * StorageManager is a class that read/write/delete appropriate task information to the Storage.
@@ -29,17 +63,95 @@ public class StorageManager {
 	private static String INFORMATION_DIRECTORY = "./";
 	private static String INFORMATION_NAME = "StorageInformation";
 	private static String INFORMATION_TYPE = ".json";
+	// Specificiation for the journal of TaskStorage.json
+	private static String JOURNAL_TYPE = ".journal";
+	private static String CORRUPT_TYPE = ".corrupt";
+	private static String TEMP_TYPE = ".tmp";
+	// Specificiation for the lock file of TaskStorage, which is shared by every instance using TaskStorage
+	private static String LOCK_TYPE = ".lock";
+	// Specificiation for the archive of completed tasks, which is only read when archived tasks are needed
+	private static String ARCHIVE_TYPE = ".archive";
+	// Completed tasks which ended more than this many days ago are archived, or never if it is negative
+	private static long ARCHIVE_AGE = -1;
+	private static int CHECKPOINT_INTERVAL = 100;
+	// Group commit of the journal, where a commit window of 0 writes every mutation as it is made
+	private static long COMMIT_WINDOW = 0;
+	private static int COMMIT_BATCH_SIZE = 1;
+	private static Thread shutdownHook;
+	// How long the shutdown hook waits for the Storage lock before leaving queued mutations unwritten
+	private static long SHUTDOWN_LOCK_TIMEOUT = 1000;
+	// How often TaskStorage and its journal are forced to the disk
+	private static DurabilityPolicy DURABILITY_POLICY = DurabilityPolicy.periodic(1000);
+	// File types of TaskStorage and the format each is written in
+	private static final String JSON_STORAGE_TYPE = ".json";
+	private static final String BINARY_STORAGE_TYPE = ".bin";
+	private static final String GZIP_STORAGE_TYPE = ".gz";
+	private static final String[] STORAGE_TYPES = {JSON_STORAGE_TYPE, BINARY_STORAGE_TYPE, 
+			JSON_STORAGE_TYPE + GZIP_STORAGE_TYPE, BINARY_STORAGE_TYPE + GZIP_STORAGE_TYPE};
+	// Deflater level of TaskStorage which is compressed, i.e. TaskStorage.json.gz
+	private static int COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+	// TaskStorage.bin at least this large is memory-mapped instead of read into the task list
+	private static long MEMORY_MAPPED_THRESHOLD = 16 * 1024 * 1024;
+	// Whether TaskStorage is split into month shards, where TaskStorage itself keeps the unscheduled tasks
+	private static boolean SHARDED_STORAGE = false;
+	// Whether month shards are only read when they are needed instead of when the Storage is opened
+	private static boolean LAZY_SHARD_LOADING = false;
+	// Whether the directory of TaskStorage is watched, so changes made outside this instance are read as they are made
+	private static boolean WATCHED_STORAGE = false;
+	private static StorageWatcher storageWatcher;
 	// Variables for File
 	private static File file;
-	private static FileReader fileReader;
-	private static FileWriter fileWriter;
-	private static BufferedReader bufferedReader;
-	private static BufferedWriter bufferedWriter;
-	// Variables for Task
-	private static Task[] TASK_LIST = {};
-	private static final Task[] EMPTY_TASK = {};
-	// Gson Variable
-	private static Gson gson = new Gson();
+	private static TaskCodec codec;
+	private static StorageJournal journal;
+	private static StorageJournal archive;
+	private static StorageLock storageLock;
+	// Generation of the last checkpoint when this instance last read or modified the Storage, the journal keeps the rest
+	private static long storageCheckpointGeneration = 0;
+	private static boolean isCheckpointed = false;
+	// Last modified time and length of TaskStorage when this instance last read or modified it
+	private static long storageModifiedTime = 0;
+	private static long storageLength = 0;
+	// Variables for verifying TaskStorage.json
+	private static CRC32C readChecksum = new CRC32C();
+	private static CRC32C writeChecksum = new CRC32C();
+	private static long verificationTime = 0;
+	private static long checkpointTime = 0;
+	private static int damagedRecordCount = 0;
+	// Variables for Task, kept in the order defined by Task.compareTo
+	private static TreeSet<Task> TASK_LIST = new TreeSet<Task>();
+	// Hash index over TASK_LIST for constant time existence checks
+	private static HashSet<Task> TASK_INDEX = new HashSet<Task>();
+	// Trigram index of the task names in TASK_LIST for searching by keywords, which is built when the names are first searched
+	private static KeywordIndex KEYWORD_INDEX = new KeywordIndex();
+	// Interval index of the scheduled tasks in TASK_LIST, for reading the tasks within a date range
+	private static DateIndex DATE_INDEX = new DateIndex();
+	private static volatile long taskListVersion = 0;
+	private static TaskSnapshot taskListSnapshot = TaskSnapshot.EMPTY;
+	// Task list which is still in the memory-mapped TaskStorage.bin, where TASK_LIST then only holds the tasks added since
+	private static MappedTaskSnapshot mappedTaskList;
+	// Tasks of the mapped task list which were removed since it was mapped
+	private static HashSet<Task> REMOVED_MAPPED_TASKS = new HashSet<Task>();
+	// Variables for archived tasks, where the archived task list is null until the archive is read
+	private static TreeSet<Task> ARCHIVE_LIST;
+	private static KeywordIndex ARCHIVE_KEYWORD_INDEX = new KeywordIndex();
+	// Bloom filter of the archived tasks kept in StorageInformation.json, or null if the archive is to be read to check a task
+	private static ArchiveFilter archiveFilter;
+	private static TaskSnapshot archiveSnapshot = TaskSnapshot.EMPTY;
+	// Variables for month shards, where the shards are null if TaskStorage is a single file
+	private static ArrayList<StorageShard> SHARDS;
+	private static HashSet<String> PENDING_SHARDS = new HashSet<String>();
+	private static HashSet<String> DIRTY_SHARDS = new HashSet<String>();
+	private static boolean isStorageDirty = false;
+	// Threads which read the shards, shared by every read so that lazy reads do not start threads each time
+	private static ExecutorService shardExecutor;
+	private static long storageChecksum = 0;
+	private static final int LOAD_PROGRESS_INTERVAL = 10000;
+	// Gson Variable, with streaming adapters so that Task is never serialized by reflection
+	private static Gson gson = new GsonBuilder()
+			.registerTypeAdapter(Task.class, new TaskTypeAdapter())
+			.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+			.create();
+	private static TypeAdapter<Task> taskAdapter = gson.getAdapter(Task.class);
 	private static final Logger log = Logger.getLogger(Ui.LOG_NAME);
 	
 	// Error Messages
@@ -52,10 +164,17 @@ public class StorageManager {
 	public static final String ERROR_INFORMATION_READER_AND_WRITER_NOT_CLOSED = "Information reader and writer could not be closed.";
 	public static final String ERROR_TASK_LIST_UNINITIALIZED = "Task list could not be initialized.";
 	public static final String ERROR_CURRENT_STORAGE_NOT_DELETED = "The Original Storage File could not be deleted.";
+	public static final String ERROR_STORAGE_NOT_MOVED = "The Storage could not be moved.";
+	public static final String ERROR_INFORMATION_NOT_WRITTEN = "Storage Information could not be written.";
 	public static final String ERROR_TASK_NOT_WRITTEN = "Task could not be written.";
 	public static final String ERROR_TASK_NOT_REMOVED = "Task could not be removed.";
+	public static final String ERROR_TASK_NOT_UPDATED = "Task could not be updated.";
 	public static final String ERROR_EMPTY_TASK_LIST = "You currently do not have any tasks saved.";
 	public static final String ERROR_TASK_NOT_FOUND = "\"%s\" was not found."; 
+	public static final String ERROR_CHECKPOINT_NOT_WRITTEN = "Task list could not be checkpointed.";
+	public static final String ERROR_MAPPED_TASK_LIST_NOT_READ = "Task list could not be read from the mapped storage.";
+	public static final String ERROR_SHARDS_NOT_READ = "Task list could not be read from the storage shards.";
+	public static final String ERROR_STORAGE_NOT_LOCKED = "The Storage could not be locked.";
 	
 	/**
 	 * This method constructs the StorageManager
@@ -70,138 +189,131 @@ public class StorageManager {
 	 * @throws Exception	if the task was unable to be written
 	 */
 	public void openStorage() throws Exception {
+		stopWatcher();
 		try {
 			initializeStorage();
-
-			if (!file.exists()) {
-				if (file.createNewFile()) {
-					log.log(Level.INFO, "File does not exist and is created.\n");
-				} else {
-					log.log(Level.WARNING, "File could not be created.\n");
-				}
+			openLock();
+			try {
+				openLockedStorage();
+			} finally {
+				unlockStorage(true);
 			}
-
-			// Set append to false because system should read the data inside TaskStorage.json
-			setReader();
-			setWriterWithAppend();
-			
-			TASK_LIST = initiateTaskList();	
-			
-			// Set append to false because system should be overwriting to the TaskStorage.json
-			closeWriter();
-			setWriterWithoutAppend();
-			
-			// Write to TaskStorage.json as soon as setting fileWrite's append to false
-			gson.toJson(TASK_LIST, bufferedWriter);
-			bufferedWriter.flush();
 		} catch (IOException e) {
 			log.log(Level.WARNING, "Error in opening storage.\n");
 			throw new Exception(e.getMessage());
 		}
+		startWatcher();
 		
 		log.log(Level.INFO, "Storage is successfully set to open.\n");
 	}
-
+	
 	/**
-	 * This method closes the Storage
+	 * This method opens the Storage while it is locked, so that no other instance modifies it while it is read
 	 * 
-	 * @throws Exception	if the task was unable to be written
+	 * @throws Exception	if the Storage could not be read or checkpointed
 	 */
-	public void closeStorage() throws Exception {
-		assert(file.exists());
-		
-		try {
-			closeReader();
-			closeWriter();
-		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in closing storage.\n");
-			throw new Exception(e.getMessage());
+	private void openLockedStorage() throws Exception {
+		if (!file.exists() && !hasStorageOfOtherType()) {
+			if (file.createNewFile()) {
+				log.log(Level.INFO, "File does not exist and is created.\n");
+			} else {
+				log.log(Level.WARNING, "File could not be created.\n");
+			}
 		}
-		
-		file = null;
-		
-		log.log(Level.INFO, "Storage is successfully set to closed.\n");
-	}
 
-	/**
-	 * Following methods sets/closes the reader/writer for TaskStorage
-	 * 
-	 * @throws Exception	if the task was unable to be written
-	 */
-	private void setReader() throws Exception {
-		assert(file.exists());
-		
-		try {
-			fileReader = new FileReader(file.getAbsoluteFile());
-			bufferedReader = new BufferedReader(fileReader);
-		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in setting reader.\n");
-			throw new Exception(ERROR_FILE_READER_UNINITIALIZED);
+		// Verify the journal and TaskStorage.json in a single pass each
+		long verificationStart = System.nanoTime();
+		if (journal != null) {
+			journal.close();
 		}
+		journal = createJournal();
+		openArchive();
+		// A temporary file left by a crash during a checkpoint was never made the Storage
+		Files.deleteIfExists(getTempFile().toPath());
+		for (String shardName : PENDING_SHARDS) {
+			Files.deleteIfExists(getShardTempFile(shardName).toPath());
+		}
+		convertStorageIfNeeded();
+		readStorage(journal.readEntries(), null, false);
+		reportVerification(verificationStart);
+		journal.open();
 		
-		log.log(Level.INFO, "Reader is successfully set.\n");
-	}
-
-	private void setWriterWithAppend() throws Exception {
-		assert(file.exists());
-		
-		try {
-			fileWriter = new FileWriter(file.getAbsoluteFile(), true);
-			bufferedWriter = new BufferedWriter(fileWriter);
-		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in setting writer.\n");
-			throw new Exception(ERROR_FILE_WRITER_UNINITIALIZED);
+		// Write every shard into TaskStorage if the Storage is no longer sharded
+		ArrayList<StorageShard> mergedShards = null;
+		if (!SHARDED_STORAGE && SHARDS != null) {
+			mergedShards = SHARDS;
+			SHARDS = null;
 		}
 		
-		log.log(Level.INFO, "Writer is successfully set with append.\n");
-	}
-
-	private void setWriterWithoutAppend() throws Exception {
-		assert(file.exists());
+		// Write to TaskStorage.json so that it starts with an empty journal
+		checkpoint();
 		
-		try {
-			fileWriter = new FileWriter(file.getAbsoluteFile());
-			bufferedWriter = new BufferedWriter(fileWriter);
-		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in setting writer.\n");
-			throw new Exception(ERROR_FILE_WRITER_UNINITIALIZED);
+		if (mergedShards != null) {
+			writeStorageInformation();
+			for (StorageShard shard : mergedShards) {
+				Files.deleteIfExists(getShardFile(shard.getName()).toPath());
+			}
 		}
-		
-		log.log(Level.INFO, "Writer is successfully set without append.\n");
 	}
-
-	private void closeReader() throws Exception {
-		assert(file.exists());
+	
+	/**
+	 * This method reads TaskStorage and its shards into the task list and replays the journal on top of them
+	 * 
+	 * @param entries			the verified journal entries
+	 * @param parsedTaskList	TaskStorage as it was already read without the lock, or null to read it now
+	 * @param isStorageRebased	true if TaskStorage was replaced without the lock, so a mismatch is a conflict rather than damage
+	 * @throws Exception		if the task list could not be read
+	 */
+	private void readStorage(ArrayList<StorageJournal.Entry> entries, ParsedTaskList parsedTaskList, 
+			boolean isStorageRebased) throws Exception {
+		releaseMappedTaskList();
+		clearTaskList();
+		if (mapTaskList(entries)) {
+			// Replay the mutations on top of the mapped task list, so only the modified tasks are held in memory
+			replayJournal(entries);
+			return;
+		}
 		
-		try {
-			bufferedReader.close();
-			fileReader.close();
-		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in closing reader.\n");
-			throw new Exception(ERROR_FILE_READER_NOT_CLOSED);
+		if (parsedTaskList == null) {
+			parsedTaskList = parseTaskList(file, codec);
 		}
+		boolean isStorageVerified = initiateTaskList(parsedTaskList, entries, isStorageRebased);
 		
-		bufferedReader = null;
-		fileReader = null;
+		// TaskStorage is only rewritten if it is damaged or still has tasks which belong in a month shard
+		isStorageDirty = !isStorageVerified || !DIRTY_SHARDS.isEmpty();
+		loadShards(getShardsToLoad(entries));
 		
-		log.log(Level.INFO, "Reader is successfully closed.\n");
+		// Replay the mutations which were not checkpointed before the Storage was last closed
+		replayJournal(entries);
 	}
 
-	private void closeWriter() throws Exception {
+	/**
+	 * This method closes the Storage
+	 * 
+	 * @throws Exception	if the task was unable to be written
+	 */
+	public void closeStorage() throws Exception {
 		assert(file.exists());
 		
+		stopWatcher();
 		try {
-			bufferedWriter.close();
-			fileWriter.close();
+			lockStorage();
+			try {
+				checkpoint();
+				journal.close();
+				closeArchive();
+			} finally {
+				unlockStorage(true);
+			}
+			closeLock();
 		} catch (FileNotFoundException e) {
-			log.log(Level.WARNING, "Error in closing writer.\n");
-			throw new Exception(ERROR_FILE_WRITER_NOT_CLOSED);
+			log.log(Level.WARNING, "Error in closing storage.\n");
+			throw new Exception(e.getMessage());
 		}
 		
-		bufferedWriter = null;
-		fileWriter = null;
+		file = null;
 		
-		log.log(Level.INFO, "Writer is successfully closed.\n");
+		log.log(Level.INFO, "Storage is successfully set to closed.\n");
 	}
 
 	/**
@@ -261,6 +373,9 @@ public class StorageManager {
 		STORAGE_NAME = storageInformationFromJson.getFileName();
 		STORAGE_TYPE = storageInformationFromJson.getFileType();
 		file = new File(STORAGE_DIRECTORY + STORAGE_NAME + STORAGE_TYPE);
+		codec = getCodec(STORAGE_TYPE);
+		initializeShards(storageInformationFromJson.getShards());
+		archiveFilter = storageInformationFromJson.getArchiveFilter();
 		
 		try {
 			// Close Reader
@@ -273,272 +388,2133 @@ public class StorageManager {
 		
 		log.log(Level.INFO, "Storage is successfully initialized.\n");
 	}
-
+	
 	/**
-	 * This method reads the task list from JSON and returns that task list
+	 * This method returns the format in which a type of TaskStorage is written
+	 * TaskStorage is written in JSON unless its type is the binary type, and is compressed if its type ends with .gz.
 	 * 
-	 * @throws Exception	if the task was unable to be written
+	 * @param storageType	the file type of TaskStorage
+	 * @return				the format of TaskStorage
+	 */
+	private TaskCodec getCodec(String storageType) {
+		if (storageType.endsWith(GZIP_STORAGE_TYPE)) {
+			String uncompressedType = storageType.substring(0, storageType.length() - GZIP_STORAGE_TYPE.length());
+			return new GzipTaskCodec(getCodec(uncompressedType), COMPRESSION_LEVEL);
+		}
+		if (BINARY_STORAGE_TYPE.equals(storageType)) {
+			return new BinaryTaskCodec();
+		}
+		return new JsonTaskCodec(taskAdapter);
+	}
+	
+	private File getStorageFileOfType(String storageType) {
+		return new File(STORAGE_DIRECTORY + STORAGE_NAME + storageType);
+	}
+	
+	private boolean hasStorageOfOtherType() {
+		for (String storageType : STORAGE_TYPES) {
+			if (!storageType.equals(STORAGE_TYPE) && getStorageFileOfType(storageType).exists()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * This method converts TaskStorage of another type to the type in StorageInformation.json
+	 * if TaskStorage of that type does not exist yet. The converted TaskStorage is checkpointed in the journal,
+	 * so the journal of the other type is still replayed on top of it. The other type is left as it is.
+	 * If the other type cannot be converted whole, the partial conversion is deleted and the other type is
+	 * used as TaskStorage until the next time the Storage is opened, so its damage is recovered and counted as usual.
+	 * 
+	 * @throws Exception	if TaskStorage could not be converted
 	 */
-	private Task[] initiateTaskList() throws Exception {
-		Task[] taskListFromJSON;
+	private void convertStorageIfNeeded() throws Exception {
+		if (file.exists()) {
+			return;
+		}
 		
-		try {
-			taskListFromJSON = gson.fromJson(bufferedReader, Task[].class);
+		for (String storageType : STORAGE_TYPES) {
+			File source = getStorageFileOfType(storageType);
+			if (storageType.equals(STORAGE_TYPE) || !source.exists()) {
+				continue;
+			}
 			
-			if (taskListFromJSON == null) {
-				taskListFromJSON = EMPTY_TASK;
+			File tempFile = getTempFile();
+			writeChecksum.reset();
+			try (InputStream in = new BufferedInputStream(new FileInputStream(source));
+					FileOutputStream tempOutputStream = new FileOutputStream(tempFile)) {
+				OutputStream out = new BufferedOutputStream(new CheckedOutputStream(tempOutputStream, writeChecksum));
+				int taskCount = 0;
+				if (source.length() > 0) {
+					taskCount = TaskCodec.convert(in, getCodec(storageType), out, codec);
+				}
+				out.flush();
+				syncStorage(tempOutputStream.getChannel());
+				log.log(Level.INFO, "Converted " + taskCount + " tasks from " + source.getName() + ".\n");
+			} catch (IOException | RuntimeException e) {
+				log.log(Level.WARNING, source.getName() + " could not be fully converted, it is used as TaskStorage instead.\n");
+				Files.deleteIfExists(tempFile.toPath());
+				STORAGE_TYPE = storageType;
+				file = source;
+				codec = getCodec(storageType);
+				return;
 			}
-		} catch (Exception e) {
-			log.log(Level.WARNING, "Task list could not be initialized.\n");
-			throw new Exception(ERROR_TASK_LIST_UNINITIALIZED);
+			replaceStorage(tempFile);
+			
+			journal.open();
+			journal.append(new StorageJournal.Entry(file.length(), writeChecksum.getValue()));
+			journal.close();
+			return;
 		}
-		
-		log.log(Level.INFO, "Task list succesfully initialized.\n");
-		return taskListFromJSON;
 	}
 
 	/**
-	 * This method changes location of the Storage
+	 * This method makes the task list read from TaskStorage the task list, replacing the task list and its indexes at once
+	 * If TaskStorage.json does not match the checksum of any checkpoint in the journal or cannot be parsed,
+	 * it is quarantined and every task which could still be read from it is kept.
+	 * TaskStorage.json replaced without the lock, i.e. by a sync tool, is checked against the checkpoints the same way.
+	 * If it matches none, it is a conflicting replacement rather than damage, which is quarantined for it to be merged manually
+	 * while its tasks are kept as the new base.
 	 * 
-	 * @param directory
-	 * @throws Exception	if the task was unable to be written
+	 * @param parsedTaskList	the task list read from TaskStorage
+	 * @param entries			the verified journal entries
+	 * @param isStorageRebased	true if TaskStorage was replaced without the lock
+	 * @return					true if TaskStorage.json was read whole and matches its checkpoint
 	 */
-	public boolean changeStorageLocation(String directory) throws Exception {
-		assert(file.exists());
-		assert(directory.length() >= 2);
-		assert((directory.charAt(directory.length() - 1) == '\\') || (directory.charAt(directory.length() - 1) == '/') == true);
-		
-		String oldDirecotry = STORAGE_DIRECTORY;
-		String oldName = STORAGE_NAME;
-		String oldType = STORAGE_TYPE;
-		
-		// Initiate Reader / Writer for StorageInformation.json
-		File informationFile = new File(INFORMATION_DIRECTORY + INFORMATION_NAME + INFORMATION_TYPE);
-		FileReader informationFileReader = new FileReader(informationFile.getAbsoluteFile());
-		FileWriter informationFileWriter = new FileWriter(informationFile.getAbsoluteFile(), true);
-		BufferedReader informationBufferedReader = new BufferedReader(informationFileReader);
-		BufferedWriter informationBufferedWriter = new BufferedWriter(informationFileWriter);
+	private boolean initiateTaskList(ParsedTaskList parsedTaskList, ArrayList<StorageJournal.Entry> entries, 
+			boolean isStorageRebased) {
+		TASK_LIST = parsedTaskList.tasks;
+		TASK_INDEX = parsedTaskList.taskIndex;
+		// The keyword index is built from the new task list when it is first searched
+		KEYWORD_INDEX.clear();
+		DATE_INDEX = parsedTaskList.dateIndex;
+		taskListVersion++;
+		if (SHARDS != null) {
+			for (Task task : TASK_LIST) {
+				markShardDirty(task);
+			}
+		}
+		damagedRecordCount = parsedTaskList.damagedRecordCount;
+		storageChecksum = parsedTaskList.checksum;
 		
-		// Read Storage Information
-		StorageInformation storageInformationFromJson;		
-		storageInformationFromJson = gson.fromJson(informationBufferedReader, StorageInformation.class);
+		boolean isVerified = parsedTaskList.isParsed && isChecksumValid(entries, storageChecksum);
+		if (!isVerified && isStorageRebased && parsedTaskList.isParsed) {
+			log.log(Level.WARNING, "Task list was replaced outside this instance by one matching no checkpoint, "
+					+ "kept " + TASK_LIST.size() + " tasks as a conflicting replacement.\n");
+			quarantineStorage();
+		} else if (!isVerified) {
+			log.log(Level.WARNING, "Task list is damaged, recovered " + TASK_LIST.size() + " tasks.\n");
+			quarantineStorage();
+		}
 		
-		// Clear Storage Information
-		informationBufferedWriter.close();
-		informationFileWriter.close(); 
-		informationFileWriter = new FileWriter(informationFile.getAbsoluteFile());
-		informationBufferedWriter = new BufferedWriter(informationFileWriter);
+		damagedRecordCount += journal.getDamagedEntryCount();
 		
-		// Set file with variables from StorageInformation.json and directory as input
-		STORAGE_DIRECTORY = directory;
-		STORAGE_NAME = storageInformationFromJson.getFileName();
-		STORAGE_TYPE = storageInformationFromJson.getFileType();
+		log.log(Level.INFO, "Task list succesfully initialized.\n");
+		return isVerified;
+	}
+	
+	/**
+	 * ParsedTaskList is TaskStorage read into a new task list and indexes, apart from the task list in use
+	 * It can be read without the lock, and is then only used if TaskStorage is unchanged once the lock is held.
+	 */
+	private static class ParsedTaskList {
+		private File file;
+		private TaskCodec codec;
+		private long modifiedTime;
+		private long length;
+		private TreeSet<Task> tasks = new TreeSet<Task>();
+		private HashSet<Task> taskIndex = new HashSet<Task>();
+		private DateIndex dateIndex = new DateIndex();
+		private long checksum = 0;
+		private int damagedRecordCount = 0;
+		private boolean isParsed = false;
 		
-		// Create a file to check if it exists and if it can be created at input path
-		File check = new File(STORAGE_DIRECTORY + STORAGE_NAME + STORAGE_TYPE);
+		private ParsedTaskList(File file, TaskCodec codec) {
+			this.file = file;
+			this.codec = codec;
+			this.modifiedTime = file.lastModified();
+			this.length = file.length();
+		}
 		
-		if(!check.exists()) {
-			if (!check.createNewFile()) {
-				// Write back to original StorageInformation.json as new StorageInformation file cannot be created
-				gson.toJson(storageInformationFromJson, informationBufferedWriter);
-				informationBufferedWriter.flush();
-				
-				STORAGE_DIRECTORY = oldDirecotry;
-				STORAGE_NAME = oldName;
-				STORAGE_TYPE = oldType;
-				
-				try {
-					informationBufferedWriter.close();
-					informationBufferedReader.close();
-					informationFileWriter.close();
-					informationFileReader.close();
-				} catch (IOException e) {
-					log.log(Level.WARNING, "Information reader and writer could not be closed.\n");
-					throw new Exception(ERROR_INFORMATION_READER_AND_WRITER_NOT_CLOSED);
-				}
-				
-				log.log(Level.WARNING, "Not able to create file at specified location, written back to original StorageInformation.json");
-				return false;
+		/**
+		 * This method adds a task, replacing any equal task as the task list does
+		 */
+		private void add(Task task) {
+			if (taskIndex.remove(task)) {
+				tasks.remove(task);
+				dateIndex.remove(task);
 			}
+			tasks.add(task);
+			taskIndex.add(task);
+			dateIndex.add(task);
 		}
 		
-		// Change Storage Information and Add back to StorageInformation.json
-		storageInformationFromJson.setFileDirectory(directory);
-		gson.toJson(storageInformationFromJson, informationBufferedWriter);
-		informationBufferedWriter.flush();
-			
-		// close all file streams before deleting the file
-		closeReader();
-		closeWriter();
-
-
-		if(!file.delete()) {
-			throw new Exception(ERROR_CURRENT_STORAGE_NOT_DELETED);
+		/**
+		 * @return	true if it was read from TaskStorage as it is now, with the codec in use
+		 */
+		private boolean isCurrent() {
+			return file.equals(StorageManager.file) && codec == StorageManager.codec 
+					&& file.lastModified() == modifiedTime && file.length() == length;
 		}
+	}
+	
+	/**
+	 * This method streams TaskStorage into a new task list, without modifying the task list in use
+	 * Tasks are added one by one as they are read, so the whole file is never held in memory.
+	 * 
+	 * @param storageFile	TaskStorage
+	 * @param storageCodec	the codec TaskStorage is written in
+	 * @return				the task list read, with the checksum of the whole file
+	 * @throws Exception	if TaskStorage could not be read
+	 */
+	private ParsedTaskList parseTaskList(File storageFile, TaskCodec storageCodec) throws Exception {
+		ParsedTaskList parsedTaskList = new ParsedTaskList(storageFile, storageCodec);
+		CRC32C checksum = new CRC32C();
 		
-		// Set directory
-		file = new File(STORAGE_DIRECTORY + STORAGE_NAME + STORAGE_TYPE);
-		
-		try {
-			informationBufferedWriter.close();
-			informationBufferedReader.close();
-			informationFileWriter.close();
-			informationFileReader.close();
+		try (FileInputStream inputStream = new FileInputStream(storageFile.getAbsoluteFile())) {
+			InputStream reader = new BufferedInputStream(new CheckedInputStream(inputStream, checksum));
+			parsedTaskList.isParsed = loadTaskList(parsedTaskList, reader, inputStream);
+			
+			// Read the rest of TaskStorage.json so that the checksum covers the whole file
+			byte[] remaining = new byte[8192];
+			while (reader.read(remaining) != -1) {
+			}
 		} catch (IOException e) {
-			log.log(Level.WARNING, "Information reader and writer could not be closed.\n");
-			throw new Exception(ERROR_INFORMATION_READER_AND_WRITER_NOT_CLOSED);
+			log.log(Level.WARNING, "Task list could not be initialized.\n");
+			throw new Exception(ERROR_TASK_LIST_UNINITIALIZED);
 		}
+		parsedTaskList.checksum = checksum.getValue();
 		
-		if (!file.exists()) {
-			file.createNewFile();
+		return parsedTaskList;
+	}
+	
+	/**
+	 * This method reads tasks from TaskStorage.json into a new task list until the end of the file 
+	 * or the first point where the file can no longer be parsed. Tasks which are invalid are skipped.
+	 * 
+	 * @return	true if the whole file was read without skipping any task
+	 */
+	private boolean loadTaskList(ParsedTaskList parsedTaskList, InputStream reader, FileInputStream inputStream) {
+		if (parsedTaskList.length == 0) {
+			return true;
 		}
-
-		setReader();
-		setWriterWithoutAppend();
 		
-		// Write to TaskStorage.json as soon as append is set to false
-		gson.toJson(TASK_LIST, bufferedWriter);
-		bufferedWriter.flush();
+		try {
+			TaskCodec.TaskReader taskReader = parsedTaskList.codec.newReader(reader);
+			
+			while (taskReader.hasNext()) {
+				Task task = taskReader.next();
+				
+				if (!isTaskValid(task)) {
+					parsedTaskList.damagedRecordCount++;
+					continue;
+				}
+				
+				parsedTaskList.add(task);
+				
+				if (parsedTaskList.tasks.size() % LOAD_PROGRESS_INTERVAL == 0) {
+					reportLoadProgress(parsedTaskList, inputStream);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// the rest of the file is unreadable
+			parsedTaskList.damagedRecordCount++;
+		}
 		
-		log.log(Level.INFO, "Storage location successfully changed.\n");
-		return true;
+		return parsedTaskList.damagedRecordCount == 0;
 	}
 	
-	//@@author A0145732H
 	/**
-	 * This method reads all task existing in the Storage
-	 * 
-	 * @throws Exception	if the task was unable to be written
+	 * A task is valid if it has a name, and it only has a start date if it also has an end date
+	 * Invalid tasks cannot be ordered, so they are never added to the task list.
 	 */
-	public ArrayList<Task> readAllTasks() {
-		ArrayList<Task> taskArrayList = new ArrayList<Task>();
-
-		taskArrayList.addAll(Arrays.asList(TASK_LIST));
-		taskArrayList.sort(null);
-
-		log.log(Level.INFO, "Returning all the tasks in a sorted order.\n");
-		return taskArrayList;
+	private boolean isTaskValid(Task task) {
+		if (task == null || task.getName() == null) {
+			return false;
+		}
+		return !(task.getStartDateTime() != null && task.getEndDateTime() == null);
 	}
-
-	//@@author A0100081E
+	
+	private void reportLoadProgress(ParsedTaskList parsedTaskList, FileInputStream inputStream) {
+		int taskCount = parsedTaskList.tasks.size();
+		try {
+			long position = inputStream.getChannel().position();
+			log.log(Level.INFO, "Loaded " + taskCount + " tasks, " + (position * 100 / parsedTaskList.length) + "% of task list read.\n");
+		} catch (IOException e) {
+			log.log(Level.INFO, "Loaded " + taskCount + " tasks.\n");
+		}
+	}
+	
 	/**
-	 * This method writes a given task to the Storage
+	 * This method checks the checksum of TaskStorage.json against the checkpoints in the journal
+	 * TaskStorage.json written before checksums were journaled has no checkpoint to be checked against.
 	 * 
-	 * @param task
-	 * @throws Exception	if the task was unable to be written
+	 * @param entries	the verified journal entries
+	 * @param checksum	the checksum of TaskStorage.json
+	 * @return			true if TaskStorage.json matches a checkpoint or if there are no checkpoints
 	 */
-	public void writeTask(Task task) throws Exception {
-		assert(file.exists());
+	private boolean isChecksumValid(ArrayList<StorageJournal.Entry> entries, long checksum) {
+		boolean hasCheckpoint = false;
 		
-		try {
-			ArrayList<Task> taskListTransition;
-			Task[] taskListToReturn;
-			
-			taskListTransition = new ArrayList<Task> (Arrays.asList(TASK_LIST));
-			
-			taskListTransition.add(task);
-			
-			taskListToReturn = taskListTransition.toArray(new Task[taskListTransition.size()]);
-			
-			TASK_LIST = new Task[taskListToReturn.length];
-			TASK_LIST = taskListToReturn;
-			
-			closeWriter();
-			setWriterWithoutAppend();
+		for (StorageJournal.Entry entry : entries) {
+			if (entry.getOperation() != StorageJournal.Operation.CHECKPOINT) {
+				continue;
+			}
 			
-			gson.toJson(taskListToReturn, bufferedWriter);
-			bufferedWriter.flush();
-		} catch (Exception e) {
-			log.log(Level.WARNING, "Task could not be written.\n");
-			throw new Exception(ERROR_TASK_NOT_WRITTEN);
+			hasCheckpoint = true;
+			if (entry.getStorageLength() == file.length() && entry.getStorageChecksum() == checksum) {
+				return true;
+			}
 		}
-		
-		log.log(Level.INFO, "Successfully written to task list.\n");
+		return !hasCheckpoint;
 	}
 	
-	//@@author A0145732H
 	/**
-	 * This method removes a given task from the Storage
-	 * 
-	 * @param task
-	 * @throws Exception	if the task was unable to be removed
+	 * This method copies the damaged or conflicting TaskStorage.json to its corrupt file so that it can be recovered manually
 	 */
-	public void removeTask(Task task) throws Exception {
-		assert(file.exists());
-		
-		boolean isRemoved = false;
+	private void quarantineStorage() {
 		try {
-			ArrayList<Task> taskListTransition;
-			Task[] taskListToUpdate;
-			
-			taskListTransition = new ArrayList<Task> (Arrays.asList(TASK_LIST));
-			
-			isRemoved = taskListTransition.remove(task);
-			
-			taskListToUpdate = taskListTransition.toArray(new Task[taskListTransition.size()]);
-			
-			TASK_LIST = new Task[taskListToUpdate.length];
-			TASK_LIST = taskListToUpdate;
-			
-			closeWriter();
-			setWriterWithoutAppend();
-			
-			gson.toJson(taskListToUpdate, bufferedWriter);
-			bufferedWriter.flush();
-			
-		} catch (Exception e) {
-			isRemoved = false;
-			log.log(Level.WARNING, "Task could not be removed.\n");
-			throw new Exception(ERROR_TASK_NOT_REMOVED);
+			Files.copy(file.toPath(), Paths.get(file.getPath() + CORRUPT_TYPE), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Damaged task list could not be quarantined.\n");
 		}
+	}
+	
+	/**
+	 * This method creates the journal of TaskStorage with the group commit that is set
+	 * Queued mutations are committed when the program exits, even if the Storage is not closed.
+	 */
+	private StorageJournal createJournal() {
+		StorageJournal newJournal = new StorageJournal(getJournalFile(), gson);
+		newJournal.setGroupCommit(COMMIT_WINDOW, COMMIT_BATCH_SIZE);
+		newJournal.setDurability(DURABILITY_POLICY);
+		newJournal.setLock(storageLock);
+		newJournal.setRefresher(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					refreshStorage();
+				} catch (Exception e) {
+					log.log(Level.WARNING, "Changes made outside this instance could not be read before committing.\n");
+				}
+			}
+		});
 		
-		if (!isRemoved) {
-			throw new Exception(String.format(ERROR_TASK_NOT_FOUND, task.getName()));
+		if (shutdownHook == null) {
+			shutdownHook = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					commitJournal();
+				}
+			}, "StorageManager-shutdown");
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
 		}
 		
-		log.log(Level.INFO, "Successfully removed task from task list.\n");
+		return newJournal;
 	}
-
+	
+	private static void commitJournal() {
+		if (journal == null) {
+			return;
+		}
+		
+		try {
+			// The journal is shared with other instances, so it is never written without the lock
+			if (storageLock == null) {
+				journal.commit();
+				return;
+			}
+			if (!storageLock.tryLock(SHUTDOWN_LOCK_TIMEOUT)) {
+				log.log(Level.WARNING, "Queued mutations are not committed, as another instance holds the Storage lock.\n");
+				return;
+			}
+			try {
+				journal.commit();
+				storageLock.advance(false);
+			} finally {
+				storageLock.unlock();
+			}
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Queued mutations could not be committed.\n");
+		}
+	}
+	
 	/**
-	 * This method updates a task in the task list with the new task in Storage
+	 * This method opens and locks the lock file of TaskStorage, replacing the lock file of its previous location
 	 * 
-	 * @param oldTask		the task to search for and update
-	 * @param newTask		the updated version of the task to replace the old task
-	 * @throws Exception	if there are no tasks or if the old task was not found
+	 * @throws Exception	if the lock file could not be opened
 	 */
-	public void updateTask(Task oldTask, Task newTask) throws Exception {
-		assert(file.exists());
+	private void openLock() throws Exception {
+		StorageLock previousLock = storageLock;
+		storageLock = new StorageLock(getLockFile());
 		
-		if (TASK_LIST.length == 0) {
-			throw new Exception(ERROR_EMPTY_TASK_LIST);
+		try {
+			storageLock.open();
+			storageLock.lock();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Storage could not be locked.\n");
+			throw new Exception(ERROR_STORAGE_NOT_LOCKED);
 		}
-
-		removeTask(oldTask);
-		writeTask(newTask);
 		
-		log.log(Level.INFO, "Successfully updated task from task list.\n");
+		if (previousLock != null) {
+			previousLock.close();
+		}
 	}
-
-	//@@author A0100081E
+	
+	private void closeLock() throws IOException {
+		if (storageLock != null) {
+			storageLock.close();
+		}
+		storageLock = null;
+	}
+	
 	/**
-	 * This method clears the task list from the Storage
+	 * This method locks the Storage against other instances, and reads what they changed since it was last locked
 	 * 
-	 * @throws Exception	if the task was unable to be cleared
+	 * @throws Exception	if the Storage could not be locked or the changes could not be read
 	 */
-	public void clearAllTasks() throws Exception {
-		assert(file.exists());
-		
-		TASK_LIST = EMPTY_TASK;
-		
-		closeWriter();
-		setWriterWithoutAppend();
-		gson.toJson(EMPTY_TASK, bufferedWriter);
+	private void lockStorage() throws Exception {
+		try {
+			storageLock.lock();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Storage could not be locked.\n");
+			throw new Exception(ERROR_STORAGE_NOT_LOCKED);
+		}
 		
-		log.log(Level.INFO, "Successfully cleared task from task list.\n");
+		try {
+			refreshStorage();
+		} catch (Exception e) {
+			unlockStorage(false);
+			throw e;
+		}
 	}
 	
 	/**
-	 * Following are public methods that accesses private attributes in StorageManager
+	 * This method unlocks the Storage, advancing its generation if this instance modified it
+	 * 
+	 * @param isModified	true if the Storage was modified while it was locked
+	 * @throws Exception	if the generation could not be written
+	 */
+	private void unlockStorage(boolean isModified) throws Exception {
+		try {
+			if (storageLock.isOutermost()) {
+				if (isModified || isCheckpointed) {
+					storageLock.advance(isCheckpointed);
+				}
+				storageCheckpointGeneration = storageLock.getCheckpointGeneration();
+				if (journal != null) {
+					journal.setGeneration(storageLock.getGeneration());
+				}
+				isCheckpointed = false;
+				storageModifiedTime = file.lastModified();
+				storageLength = file.length();
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Storage generation could not be written.\n");
+			throw new Exception(ERROR_STORAGE_NOT_LOCKED);
+		} finally {
+			storageLock.unlock();
+		}
+	}
+	
+	/**
+	 * This method brings the task list up to date if another instance modified the Storage since this instance last did
+	 * If the other instance only appended to the journal, only its entries are read and replayed.
+	 * If it checkpointed, or TaskStorage was changed without the lock, i.e. by a sync tool, TaskStorage is read again.
+	 * TaskStorage changed without the lock is a new base, which is checkpointed for the journal to match it.
+	 * A new base matching no checkpoint is quarantined as a conflicting replacement, though it is still not damage.
+	 * Mutations still queued by this instance are written after the other instance's, so they are applied again after them.
+	 * 
+	 * @throws Exception	if the changes could not be read
+	 */
+	private void refreshStorage() throws Exception {
+		refreshStorage(null);
+	}
+	
+	/**
+	 * @return	true if another instance or a sync tool changed the Storage since this instance last read or modified it
+	 */
+	private boolean isStorageChanged() {
+		if (journal == null) {
+			return false;
+		}
+		boolean isStorageReplaced = file.lastModified() != storageModifiedTime || file.length() != storageLength;
+		return isStorageReplaced || storageLock.getGeneration() != journal.getGeneration();
+	}
+	
+	/**
+	 * @param parsedTaskList	TaskStorage as it was read without the lock, which is used if TaskStorage is unchanged since
+	 */
+	private void refreshStorage(ParsedTaskList parsedTaskList) throws Exception {
+		if (!isStorageChanged()) {
+			return;
+		}
+		boolean isStorageReplaced = file.lastModified() != storageModifiedTime || file.length() != storageLength;
+		
+		ArrayList<StorageJournal.Entry> pendingEntries = journal.getPendingEntries();
+		ArrayList<StorageJournal.Entry> entries;
+		// No other instance checkpointed, so TaskStorage was replaced without the lock
+		boolean isStorageRebased = isStorageReplaced && storageLock.getCheckpointGeneration() == storageCheckpointGeneration;
+		if (!isStorageReplaced && storageLock.getCheckpointGeneration() == storageCheckpointGeneration) {
+			entries = journal.readEntriesFrom(journal.getGenerationLength());
+			loadShards(getShardsToLoad(entries));
+			replayJournal(entries);
+			journal.refresh(entries.size());
+		} else {
+			try {
+				StorageInformation storageInformation = readStorageInformation();
+				initializeShards(storageInformation.getShards());
+				archiveFilter = storageInformation.getArchiveFilter();
+			} catch (IOException | JsonParseException e) {
+				log.log(Level.WARNING, "Storage Information could not be read.\n");
+				throw new Exception(ERROR_TASK_LIST_UNINITIALIZED);
+			}
+			entries = journal.readEntries();
+			if (parsedTaskList != null && !parsedTaskList.isCurrent()) {
+				parsedTaskList = null;
+			}
+			readStorage(entries, parsedTaskList, isStorageRebased);
+			journal.refresh(0);
+		}
+		replayJournal(pendingEntries);
+		
+		if (isStorageRebased) {
+			checkpoint();
+			storageLock.advance(true);
+			isCheckpointed = false;
+		}
+		
+		// the other instance may have archived tasks, so the archive is read again when it is needed
+		if (archive != null) {
+			archive.close();
+			reopenArchive();
+		}
+		ARCHIVE_LIST = null;
+		archiveSnapshot = TaskSnapshot.EMPTY;
+		
+		storageCheckpointGeneration = storageLock.getCheckpointGeneration();
+		journal.setGeneration(storageLock.getGeneration());
+		storageModifiedTime = file.lastModified();
+		storageLength = file.length();
+		
+		log.log(Level.INFO, "Storage was modified outside this instance, replayed " + entries.size() + " journal entries.\n");
+	}
+	
+	/**
+	 * This method starts watching the directory of TaskStorage if it is set to be watched
+	 * If it cannot be watched, changes made outside this instance are still read the next time the Storage is read.
+	 */
+	private void startWatcher() {
+		if (!WATCHED_STORAGE) {
+			return;
+		}
+		
+		// Another instance advances the generation in the lock file after every mutation, 
+		// while a sync tool replaces TaskStorage or StorageInformation.json
+		File directory = file.getAbsoluteFile().getParentFile();
+		ArrayList<String> fileNames = new ArrayList<String>();
+		fileNames.add(file.getName());
+		fileNames.add(getLockFile().getName());
+		File informationFile = new File(INFORMATION_DIRECTORY + INFORMATION_NAME + INFORMATION_TYPE).getAbsoluteFile();
+		if (directory.equals(informationFile.getParentFile())) {
+			fileNames.add(informationFile.getName());
+		}
+		
+		storageWatcher = new StorageWatcher(directory, fileNames, new Runnable() {
+			@Override
+			public void run() {
+				reloadStorage();
+			}
+		});
+		try {
+			storageWatcher.start();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Storage could not be watched.\n");
+			storageWatcher = null;
+		}
+	}
+	
+	/**
+	 * This method stops watching the directory of TaskStorage, and must be called before the Storage is locked
+	 */
+	private void stopWatcher() {
+		if (storageWatcher != null) {
+			storageWatcher.stop();
+			storageWatcher = null;
+		}
+	}
+	
+	/**
+	 * This method reads the changes made outside this instance on the watcher thread, off the Ui thread
+	 * A replaced TaskStorage is parsed into a new task list before the Storage is locked, so the lock is only held
+	 * to read the journal and swap the new task list in. Readers are given immutable snapshots,
+	 * so a reader sees either the task list from before the changes or the one with all of them.
+	 * The changes are only read if the generation or TaskStorage differ from what this instance last wrote,
+	 * so the changes of this instance wake the watcher but do not lock the lock file.
+	 */
+	private void reloadStorage() {
+		ParsedTaskList parsedTaskList = null;
+		try {
+			parsedTaskList = parseReplacedTaskList();
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Replaced task list could not be read before locking the Storage.\n");
+		}
+		
+		unlockStorageForRead(lockStorageForRead(parsedTaskList));
+	}
+	
+	/**
+	 * This method reads TaskStorage without the lock if it changed since this instance last read or modified it
+	 * TaskStorage.bin large enough to be memory-mapped is left to be mapped once the Storage is locked.
+	 * 
+	 * @return				TaskStorage read into a new task list, or null if it is unchanged or is mapped
+	 * @throws Exception	if TaskStorage could not be read
+	 */
+	private ParsedTaskList parseReplacedTaskList() throws Exception {
+		File storageFile = file;
+		TaskCodec storageCodec = codec;
+		if (storageFile == null || (storageFile.lastModified() == storageModifiedTime && storageFile.length() == storageLength)) {
+			return null;
+		}
+		if (storageCodec instanceof BinaryTaskCodec && storageFile.length() >= MEMORY_MAPPED_THRESHOLD) {
+			return null;
+		}
+		return parseTaskList(storageFile, storageCodec);
+	}
+	
+	/**
+	 * This method opens the archive of TaskStorage for appending, without reading the archived tasks
+	 * The archive is only created once tasks are archived.
+	 * 
+	 * @throws Exception	if the archive could not be opened
+	 */
+	private void openArchive() throws Exception {
+		closeArchive();
+		
+		archive = new StorageJournal(getArchiveFile(), gson);
+		archive.setDurability(DURABILITY_POLICY);
+		archive.setLock(storageLock);
+		reopenArchive();
+	}
+	
+	private void reopenArchive() throws Exception {
+		if (getArchiveFile().exists()) {
+			archive.open();
+		}
+	}
+	
+	private void closeArchive() throws Exception {
+		if (archive != null) {
+			archive.close();
+		}
+		
+		archive = null;
+		ARCHIVE_LIST = null;
+		archiveSnapshot = TaskSnapshot.EMPTY;
+	}
+	
+	/**
+	 * This method reads the archived tasks from the archive the first time they are needed
+	 * The archive is replayed like the journal, so a task archived more than once is only read once.
+	 */
+	private static void loadArchive() {
+		if (ARCHIVE_LIST != null || archive == null) {
+			return;
+		}
+		
+		ARCHIVE_LIST = new TreeSet<Task>();
+		ARCHIVE_KEYWORD_INDEX.clear();
+		try {
+			for (StorageJournal.Entry entry : archive.readEntries()) {
+				ARCHIVE_LIST.remove(entry.getTask());
+				ARCHIVE_KEYWORD_INDEX.remove(entry.getTask());
+				if (entry.getOperation() == StorageJournal.Operation.ADD) {
+					ARCHIVE_LIST.add(entry.getTask());
+					ARCHIVE_KEYWORD_INDEX.add(entry.getTask());
+				}
+			}
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Archive could not be fully read.\n");
+		}
+		updateArchiveSnapshot();
+		
+		log.log(Level.INFO, "Archive successfully read with " + ARCHIVE_LIST.size() + " tasks.\n");
+	}
+	
+	private static void updateArchiveSnapshot() {
+		archiveSnapshot = new TaskSnapshot(ARCHIVE_LIST.toArray(new Task[ARCHIVE_LIST.size()]), 0);
+	}
+	
+	/**
+	 * This method moves completed tasks which ended longer ago than the archive age from the task list to the archive
+	 * Tasks are appended to the archive before they leave the task list, so they are never missing from both.
+	 * 
+	 * @throws Exception	if the tasks could not be archived
+	 */
+	private void archiveCompletedTasks() throws Exception {
+		if (archive == null) {
+			return;
+		}
+		// An archive written before it had a filter is read once to build the filter
+		if (archiveFilter == null && getArchiveFile().exists()) {
+			updateArchiveFilter(new ArrayList<Task>());
+		}
+		if (ARCHIVE_AGE < 0) {
+			return;
+		}
+		
+		LocalDateTime archiveBefore = LocalDateTime.now().minusDays(ARCHIVE_AGE);
+		ArrayList<Task> archivedTasks = new ArrayList<Task>();
+		ArrayList<StorageJournal.Entry> entries = new ArrayList<StorageJournal.Entry>();
+		
+		Iterable<Task> tasks = TASK_LIST;
+		if (mappedTaskList != null) {
+			// The mapped task list is read one task at a time, as it is when it is checkpointed
+			tasks = getTaskListSnapshot();
+		}
+		for (Task task : tasks) {
+			if (task.isDone() && task.getEndDateTime() != null && task.getEndDateTime().isBefore(archiveBefore)) {
+				archivedTasks.add(task);
+				entries.add(new StorageJournal.Entry(StorageJournal.Operation.ADD, task));
+			}
+		}
+		
+		if (archivedTasks.isEmpty()) {
+			return;
+		}
+		
+		if (!getArchiveFile().exists()) {
+			archive.open();
+		}
+		// The filter is written before the tasks are archived, so it never leaves out an archived task
+		updateArchiveFilter(archivedTasks);
+		archive.append(entries);
+		for (Task task : archivedTasks) {
+			removeFromTaskList(task);
+			if (ARCHIVE_LIST != null) {
+				ARCHIVE_LIST.remove(task);
+				ARCHIVE_LIST.add(task);
+				ARCHIVE_KEYWORD_INDEX.add(task);
+			}
+		}
+		if (ARCHIVE_LIST != null) {
+			updateArchiveSnapshot();
+		}
+		
+		log.log(Level.INFO, "Archived " + archivedTasks.size() + " completed tasks.\n");
+	}
+	
+	/**
+	 * This method adds the tasks which are about to be archived to the filter of the archive, 
+	 * and writes the filter to StorageInformation.json
+	 * The filter is built again from the archive, with room for as many tasks again, if it is full or was never built.
+	 * 
+	 * @param archivedTasks	the tasks about to be archived
+	 * @throws Exception	if StorageInformation.json could not be written
+	 */
+	private void updateArchiveFilter(ArrayList<Task> archivedTasks) throws Exception {
+		if (archiveFilter == null || archiveFilter.isFull(archivedTasks.size())) {
+			loadArchive();
+			ArchiveFilter builtFilter = new ArchiveFilter(2 * (ARCHIVE_LIST.size() + archivedTasks.size()));
+			builtFilter.addAll(ARCHIVE_LIST);
+			archiveFilter = builtFilter;
+		}
+		
+		archiveFilter.addAll(archivedTasks);
+		writeStorageInformation();
+	}
+	
+	/**
+	 * This method checks whether an equal task is archived, reading the archive only if its filter has the task
+	 * Unscheduled tasks are never archived, so the archive is not read for them.
+	 * 
+	 * @param task	the task to look for
+	 * @return		true if the task is archived
+	 */
+	private static boolean isArchived(Task task) {
+		if (task.getEndDateTime() == null || archive == null) {
+			return false;
+		}
+		if (ARCHIVE_LIST == null && archiveFilter != null && !archiveFilter.mightContain(task)) {
+			return false;
+		}
+		
+		loadArchive();
+		return ARCHIVE_LIST.contains(task);
+	}
+	
+	/**
+	 * This method checks whether the archive has no tasks without reading it,
+	 * where an archive which has not been read is only known to be empty if it has no entries
+	 */
+	private boolean isArchiveEmpty() {
+		if (ARCHIVE_LIST != null) {
+			return ARCHIVE_LIST.isEmpty();
+		}
+		return archive == null || getArchiveFile().length() == 0;
+	}
+	
+	/**
+	 * This method removes a task from the archive, reading the archive if it has not been read
+	 * 
+	 * @param task			the task to remove
+	 * @return				true if the task was archived
+	 * @throws Exception	if the removal could not be written to the archive
+	 */
+	private boolean removeFromArchive(Task task) throws Exception {
+		loadArchive();
+		if (archive == null || !ARCHIVE_LIST.remove(task)) {
+			return false;
+		}
+		ARCHIVE_KEYWORD_INDEX.remove(task);
+		
+		archive.append(StorageJournal.Operation.REMOVE, task);
+		updateArchiveSnapshot();
+		return true;
+	}
+	
+	/**
+	 * This method sets the month shards listed in StorageInformation.json as not yet read
+	 * If the Storage is to be sharded but is still a single file, it starts with no shards and is split at the next checkpoint.
+	 * 
+	 * @param shards	the shards in StorageInformation.json, or null if TaskStorage is a single file
+	 */
+	private static void initializeShards(ArrayList<StorageShard> shards) {
+		SHARDS = shards;
+		if (SHARDS == null && SHARDED_STORAGE) {
+			SHARDS = new ArrayList<StorageShard>();
+		}
+		
+		PENDING_SHARDS.clear();
+		DIRTY_SHARDS.clear();
+		isStorageDirty = false;
+		if (SHARDS != null) {
+			for (StorageShard shard : SHARDS) {
+				PENDING_SHARDS.add(shard.getName());
+			}
+		}
+	}
+	
+	private File getShardFile(String shardName) {
+		return getShardFile(shardName, STORAGE_TYPE);
+	}
+	
+	private File getShardFile(String shardName, String storageType) {
+		return new File(STORAGE_DIRECTORY + STORAGE_NAME + "." + shardName + storageType);
+	}
+	
+	private File getShardTempFile(String shardName) {
+		return new File(getShardFile(shardName).getPath() + TEMP_TYPE);
+	}
+	
+	/**
+	 * This method returns the shards to read when the Storage is opened
+	 * Shards are read lazily only if the Storage stays sharded, and then only the shards the journal changed are read.
+	 * 
+	 * @param entries	the verified journal entries
+	 * @return			the names of the shards to read
+	 */
+	private Collection<String> getShardsToLoad(ArrayList<StorageJournal.Entry> entries) {
+		if (!LAZY_SHARD_LOADING || !SHARDED_STORAGE) {
+			return new ArrayList<String>(PENDING_SHARDS);
+		}
+		
+		ArrayList<Task> tasks = new ArrayList<Task>();
+		for (StorageJournal.Entry entry : entries) {
+			if (entry.getOperation() == StorageJournal.Operation.CHECKPOINT) {
+				continue;
+			}
+			tasks.add(entry.getTask());
+			if (entry.getOperation() == StorageJournal.Operation.UPDATE) {
+				tasks.add(entry.getUpdatedTask());
+			}
+		}
+		return getShardNames(tasks);
+	}
+	
+	private static HashSet<String> getShardNames(Collection<Task> tasks) {
+		HashSet<String> shardNames = new HashSet<String>();
+		for (Task task : tasks) {
+			String shardName = StorageShard.getShardName(task);
+			if (shardName != null) {
+				shardNames.add(shardName);
+			}
+		}
+		return shardNames;
+	}
+	
+	/**
+	 * This method reads the shards of the given tasks into the task list if they have not been read,
+	 * so that the tasks can be found or replaced before they are modified
+	 * 
+	 * @param tasks			the tasks which are about to be modified
+	 * @throws Exception	if the shards could not be read
+	 */
+	private void loadShardsOf(Task... tasks) throws Exception {
+		loadShardsOf(Arrays.asList(tasks));
+	}
+	
+	private void loadShardsOf(Collection<Task> tasks) throws Exception {
+		if (PENDING_SHARDS.isEmpty()) {
+			return;
+		}
+		loadShards(getShardNames(tasks));
+	}
+	
+	/**
+	 * This method reads shards which have not been read into the task list, one thread per shard
+	 * The shards are read in parallel and then added to the task list in one thread.
+	 * A damaged shard is quarantined and rewritten with the tasks which could still be read from it.
+	 * A shard which could not be read at all is counted as damaged and left unread, so it is read again when next needed.
+	 * 
+	 * @param shardNames	the shards to read, where shards which have already been read are skipped
+	 * @throws Exception	if some shards could not be read
+	 */
+	private void loadShards(Collection<String> shardNames) throws Exception {
+		ArrayList<ShardReader> shardReaders = new ArrayList<ShardReader>();
+		for (StorageShard shard : SHARDS == null ? new ArrayList<StorageShard>() : SHARDS) {
+			if (shardNames.contains(shard.getName()) && PENDING_SHARDS.remove(shard.getName())) {
+				shardReaders.add(new ShardReader(shard));
+			}
+		}
+		if (shardReaders.isEmpty()) {
+			return;
+		}
+		
+		ExecutorService executor = getShardExecutor();
+		ArrayList<Future<ArrayList<Task>>> shardTasks = new ArrayList<Future<ArrayList<Task>>>();
+		for (ShardReader shardReader : shardReaders) {
+			shardTasks.add(executor.submit(shardReader));
+		}
+		
+		int unreadShardCount = 0;
+		for (int i = 0; i < shardReaders.size(); i++) {
+			ShardReader shardReader = shardReaders.get(i);
+			ArrayList<Task> tasks;
+			try {
+				tasks = shardTasks.get(i).get();
+			} catch (InterruptedException | ExecutionException e) {
+				log.log(Level.WARNING, "Storage shard " + shardReader.getShardName() + " could not be read.\n");
+				PENDING_SHARDS.add(shardReader.getShardName());
+				damagedRecordCount++;
+				unreadShardCount++;
+				continue;
+			}
+			
+			for (Task task : tasks) {
+				if (TASK_INDEX.add(task)) {
+					TASK_LIST.add(task);
+					KEYWORD_INDEX.add(task);
+					DATE_INDEX.add(task);
+				}
+			}
+			if (shardReader.isRewriteNeeded()) {
+				DIRTY_SHARDS.add(shardReader.getShardName());
+			}
+			damagedRecordCount += shardReader.getDamagedRecordCount();
+		}
+		taskListVersion++;
+		
+		if (unreadShardCount > 0) {
+			throw new Exception(ERROR_SHARDS_NOT_READ);
+		}
+		log.log(Level.INFO, "Read " + shardReaders.size() + " storage shards.\n");
+	}
+	
+	private static synchronized ExecutorService getShardExecutor() {
+		if (shardExecutor == null) {
+			shardExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "StorageShard-reader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return shardExecutor;
+	}
+	
+	/**
+	 * ShardReader reads every valid task of a shard, from a shard of another type if the shard was converted
+	 * The shard file is checked against the checksum kept in StorageInformation.json, so a shard which was
+	 * changed outside the Storage is treated as damaged even if it can be parsed.
+	 */
+	private class ShardReader implements Callable<ArrayList<Task>> {
+		private StorageShard shard;
+		private String shardName;
+		private int damagedRecordCount = 0;
+		private boolean isConverted = false;
+		
+		public ShardReader(StorageShard shard) {
+			this.shard = shard;
+			this.shardName = shard.getName();
+		}
+		
+		@Override
+		public ArrayList<Task> call() {
+			ArrayList<Task> tasks = new ArrayList<Task>();
+			File shardFile = getShardFile(shardName);
+			TaskCodec shardCodec = codec;
+			for (String storageType : STORAGE_TYPES) {
+				if (!shardFile.exists() && getShardFile(shardName, storageType).exists()) {
+					shardFile = getShardFile(shardName, storageType);
+					shardCodec = getCodec(storageType);
+					isConverted = true;
+				}
+			}
+			
+			if (!shardFile.exists()) {
+				log.log(Level.WARNING, "Storage shard " + shardName + " does not exist.\n");
+				damagedRecordCount++;
+				return tasks;
+			}
+			
+			CRC32C shardChecksum = new CRC32C();
+			try (InputStream shardReader = new BufferedInputStream(new CheckedInputStream(new FileInputStream(shardFile), shardChecksum))) {
+				TaskCodec.TaskReader taskReader = shardCodec.newReader(shardReader);
+				while (shardFile.length() > 0 && taskReader.hasNext()) {
+					Task task = taskReader.next();
+					if (isTaskValid(task)) {
+						tasks.add(task);
+					} else {
+						damagedRecordCount++;
+					}
+				}
+				
+				// Read the rest of the shard so that the checksum covers the whole file
+				byte[] remaining = new byte[8192];
+				while (shardReader.read(remaining) != -1) {
+				}
+				if (damagedRecordCount == 0 && !shard.isChecksumValid(shardFile.length(), shardChecksum.getValue())) {
+					log.log(Level.WARNING, "Storage shard " + shardName + " does not match its checksum.\n");
+					damagedRecordCount++;
+				}
+			} catch (IOException | RuntimeException e) {
+				// the rest of the shard is unreadable
+				damagedRecordCount++;
+			}
+			
+			if (damagedRecordCount > 0) {
+				log.log(Level.WARNING, "Storage shard " + shardName + " is damaged, recovered " + tasks.size() + " tasks.\n");
+				try {
+					Files.copy(shardFile.toPath(), Paths.get(shardFile.getPath() + CORRUPT_TYPE), StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					log.log(Level.WARNING, "Damaged storage shard could not be quarantined.\n");
+				}
+			}
+			return tasks;
+		}
+		
+		public String getShardName() {
+			return shardName;
+		}
+		
+		public int getDamagedRecordCount() {
+			return damagedRecordCount;
+		}
+		
+		public boolean isRewriteNeeded() {
+			return damagedRecordCount > 0 || isConverted;
+		}
+	}
+	
+	/**
+	 * This method marks the shard of a task as modified, so that it is rewritten at the next checkpoint
+	 */
+	private static void markShardDirty(Task task) {
+		if (SHARDS == null) {
+			return;
+		}
+		
+		String shardName = StorageShard.getShardName(task);
+		if (shardName == null) {
+			isStorageDirty = true;
+		} else {
+			DIRTY_SHARDS.add(shardName);
+		}
+	}
+	
+	/**
+	 * This method rewrites only the modified shards, and TaskStorage only if an unscheduled task was modified
+	 * Shards left without tasks are deleted after StorageInformation.json stops listing them.
+	 * 
+	 * @return				the time in nanoseconds spent forcing the shards to the disk
+	 * @throws Exception	if the shards or StorageInformation.json could not be written
+	 */
+	private long checkpointShards() throws Exception {
+		HashMap<String, ArrayList<Task>> dirtyShardTasks = new HashMap<String, ArrayList<Task>>();
+		for (String shardName : DIRTY_SHARDS) {
+			dirtyShardTasks.put(shardName, new ArrayList<Task>());
+		}
+		ArrayList<Task> unscheduledTasks = new ArrayList<Task>();
+		
+		for (Task task : TASK_LIST) {
+			String shardName = StorageShard.getShardName(task);
+			if (shardName == null) {
+				unscheduledTasks.add(task);
+			} else if (dirtyShardTasks.containsKey(shardName)) {
+				dirtyShardTasks.get(shardName).add(task);
+			}
+		}
+		
+		long syncTime = 0;
+		ArrayList<StorageShard> emptyShards = new ArrayList<StorageShard>();
+		for (Map.Entry<String, ArrayList<Task>> shardTasks : dirtyShardTasks.entrySet()) {
+			StorageShard shard = null;
+			for (StorageShard listedShard : SHARDS) {
+				if (listedShard.getName().equals(shardTasks.getKey())) {
+					shard = listedShard;
+				}
+			}
+			
+			if (shardTasks.getValue().isEmpty()) {
+				if (shard != null) {
+					emptyShards.add(shard);
+				}
+				continue;
+			}
+			
+			File shardFile = getShardFile(shardTasks.getKey());
+			syncTime += writeTaskFile(shardTasks.getValue(), shardFile);
+			long shardChecksum = writeChecksum.getValue();
+			LocalDateTime lastDateTime = null;
+			for (Task task : shardTasks.getValue()) {
+				if (lastDateTime == null || task.getEndDateTime().isAfter(lastDateTime)) {
+					lastDateTime = task.getEndDateTime();
+				}
+			}
+			if (shard == null) {
+				shard = new StorageShard(shardTasks.getKey(), lastDateTime);
+				SHARDS.add(shard);
+			} else {
+				shard.setLastDateTime(lastDateTime);
+			}
+			shard.setChecksum(shardFile.length(), shardChecksum);
+		}
+		
+		if (!dirtyShardTasks.isEmpty()) {
+			SHARDS.removeAll(emptyShards);
+			writeStorageInformation();
+			for (StorageShard shard : emptyShards) {
+				Files.deleteIfExists(getShardFile(shard.getName()).toPath());
+			}
+		}
+		
+		// TaskStorage is written last, so a task moved out of it is already in its month shard
+		if (isStorageDirty) {
+			syncTime += writeTaskFile(unscheduledTasks, file);
+			storageChecksum = writeChecksum.getValue();
+		}
+		
+		log.log(Level.INFO, "Rewrote " + (dirtyShardTasks.size() - emptyShards.size()) + " storage shards" 
+				+ (isStorageDirty ? " and the unscheduled tasks.\n" : ".\n"));
+		DIRTY_SHARDS.clear();
+		isStorageDirty = false;
+		return syncTime;
+	}
+	
+	/**
+	 * This method memory-maps TaskStorage.bin instead of reading it into the task list, if it is large enough
+	 * Only the offsets of the tasks are read, and the tasks are read lazily through the mapped snapshot.
+	 * TaskStorage.bin is only mapped if it is verified and in order and the journal is not damaged, 
+	 * and the mutations in the journal are then replayed on top of the mapped task list.
+	 * 
+	 * @param entries	the verified journal entries
+	 * @return			true if the task list is mapped
+	 */
+	private boolean mapTaskList(ArrayList<StorageJournal.Entry> entries) {
+		if (!(codec instanceof BinaryTaskCodec) || SHARDS != null || file.length() == 0 || file.length() < MEMORY_MAPPED_THRESHOLD 
+				|| file.length() > Integer.MAX_VALUE || journal.getDamagedEntryCount() > 0) {
+			return false;
+		}
+		
+		try {
+			MappedByteBuffer buffer = mapStorage();
+			int[] offsets = BinaryTaskCodec.findRecords(buffer);
+			
+			readChecksum.reset();
+			readChecksum.update(buffer.duplicate());
+			if (!isChecksumValid(entries, readChecksum.getValue())) {
+				return false;
+			}
+			
+			MappedTaskSnapshot mappedTasks = new MappedTaskSnapshot(buffer, offsets, taskListVersion);
+			if (!mappedTasks.isSorted()) {
+				log.log(Level.WARNING, "Task list is not in order, reading it instead.\n");
+				return false;
+			}
+			
+			mappedTaskList = mappedTasks;
+			taskListSnapshot = mappedTaskList;
+			storageChecksum = readChecksum.getValue();
+		} catch (IOException | IllegalStateException e) {
+			log.log(Level.WARNING, "Task list could not be mapped, reading it instead.\n");
+			return false;
+		}
+		
+		damagedRecordCount = 0;
+		
+		log.log(Level.INFO, "Task list successfully mapped with " + mappedTaskList.size() + " tasks.\n");
+		return true;
+	}
+	
+	private MappedByteBuffer mapStorage() throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+	
+	/**
+	 * This method stops reading the task list from the mapped TaskStorage.bin before TaskStorage is read again
+	 * The last snapshot is materialized, so that it can still be read if TaskStorage.bin was rewritten in place.
+	 * 
+	 * @throws Exception	if the mapped task list could not be read
+	 */
+	private static void releaseMappedTaskList() throws Exception {
+		if (mappedTaskList == null) {
+			return;
+		}
+		
+		try {
+			if (taskListSnapshot instanceof MappedTaskSnapshot) {
+				((MappedTaskSnapshot) taskListSnapshot).materialize();
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Mapped task list could not be read.\n");
+			throw new Exception(ERROR_MAPPED_TASK_LIST_NOT_READ);
+		}
+		
+		mappedTaskList = null;
+		REMOVED_MAPPED_TASKS.clear();
+		
+		log.log(Level.INFO, "Mapped task list is released.\n");
+	}
+	
+	/**
+	 * This method rewrites TaskStorage.bin with the mapped task list as modified, and maps the new TaskStorage.bin,
+	 * so the task list is written one task at a time and is never read into memory
+	 * TaskStorage.bin is replaced by renaming, so the snapshots of the old TaskStorage.bin can still be read.
+	 * 
+	 * @return				the time in nanoseconds spent forcing TaskStorage.bin to the disk
+	 * @throws IOException	if TaskStorage.bin could not be written
+	 */
+	private long checkpointMappedTaskList() throws IOException {
+		if (!isMappedTaskListModified()) {
+			return 0;
+		}
+		
+		TaskSnapshot tasks = getTaskListSnapshot();
+		long syncTime = writeTaskFile(tasks, file);
+		storageChecksum = writeChecksum.getValue();
+		
+		clearTaskList();
+		REMOVED_MAPPED_TASKS.clear();
+		mappedTaskList = null;
+		try {
+			MappedByteBuffer buffer = mapStorage();
+			mappedTaskList = new MappedTaskSnapshot(buffer, BinaryTaskCodec.findRecords(buffer), taskListVersion);
+			taskListSnapshot = mappedTaskList;
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Task list could not be mapped again, reading it instead.\n");
+			for (Task task : tasks) {
+				addToTaskList(task);
+			}
+		}
+		return syncTime;
+	}
+	
+	private static boolean isMappedTaskListModified() {
+		return !TASK_LIST.isEmpty() || !REMOVED_MAPPED_TASKS.isEmpty();
+	}
+
+	/**
+	 * This method reports how long the Storage took to be verified and recovered
+	 * 
+	 * @param verificationStart		the time in nanoseconds when verification started
+	 */
+	private void reportVerification(long verificationStart) {
+		verificationTime = (System.nanoTime() - verificationStart) / 1000000;
+		
+		if (damagedRecordCount > 0) {
+			log.log(Level.WARNING, "Storage verified in " + verificationTime + " ms with " + damagedRecordCount + " damaged records.\n");
+		} else {
+			log.log(Level.INFO, "Storage verified in " + verificationTime + " ms.\n");
+		}
+	}
+
+	/**
+	 * This method applies the journal entries in order on top of the task list read from TaskStorage.json
+	 * Entries are applied as set operations, so replaying entries that were already checkpointed is harmless.
+	 * 
+	 * @param entries		the journal entries to apply
+	 */
+	private void replayJournal(ArrayList<StorageJournal.Entry> entries) {
+		for (StorageJournal.Entry entry : entries) {
+			if (entry.getOperation() == StorageJournal.Operation.CHECKPOINT) {
+				continue;
+			}
+			
+			removeFromTaskList(entry.getTask());
+			
+			if (entry.getOperation() == StorageJournal.Operation.ADD) {
+				addToTaskList(entry.getTask());
+			} else if (entry.getOperation() == StorageJournal.Operation.UPDATE) {
+				addToTaskList(entry.getUpdatedTask());
+			}
+		}
+		
+		log.log(Level.INFO, "Replayed " + entries.size() + " journal entries.\n");
+	}
+
+	/**
+	 * This method rewrites TaskStorage.json with the whole task list and empties the journal
+	 * The task list is written to a temporary file which then replaces TaskStorage.json, so a crash while writing 
+	 * leaves the old TaskStorage.json and its journal as they were. The journal is restarted with the length and 
+	 * checksum of the new TaskStorage.json so it can be verified.
+	 * 
+	 * @throws Exception	if the task list could not be written
+	 */
+	private void checkpoint() throws Exception {
+		// A mapped task list which has not been modified since TaskStorage.bin was written has nothing to checkpoint
+		if (mappedTaskList != null && !isMappedTaskListModified() && journal.getSize() <= 1) {
+			return;
+		}
+		
+		long checkpointStart = System.nanoTime();
+		long syncTime;
+		try {
+			archiveCompletedTasks();
+			
+			if (SHARDS != null) {
+				syncTime = checkpointShards();
+			} else if (mappedTaskList != null) {
+				syncTime = checkpointMappedTaskList();
+			} else {
+				syncTime = writeTaskFile(TASK_LIST, file);
+				storageChecksum = writeChecksum.getValue();
+			}
+			
+			journal.clear();
+			journal.append(new StorageJournal.Entry(file.length(), storageChecksum));
+			isCheckpointed = true;
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Task list could not be checkpointed.\n");
+			throw new Exception(ERROR_CHECKPOINT_NOT_WRITTEN);
+		}
+		
+		checkpointTime = (System.nanoTime() - checkpointStart) / 1000000;
+		log.log(Level.INFO, "Task list successfully checkpointed in " + checkpointTime + " ms, of which " 
+				+ syncTime / 1000000 + " ms was forcing it to the disk with " + DURABILITY_POLICY + ".\n");
+	}
+	
+	private File getTempFile() {
+		return new File(file.getPath() + TEMP_TYPE);
+	}
+	
+	/**
+	 * This method writes tasks to a temporary file which then replaces the target file
+	 * 
+	 * @param tasks			the tasks to write in order
+	 * @param target		the file to replace
+	 * @return				the time in nanoseconds spent forcing the file to the disk
+	 * @throws IOException	if the file could not be written
+	 */
+	private long writeTaskFile(Iterable<Task> tasks, File target) throws IOException {
+		File tempFile = new File(target.getPath() + TEMP_TYPE);
+		long syncTime;
+		writeChecksum.reset();
+		
+		try (FileOutputStream tempOutputStream = new FileOutputStream(tempFile)) {
+			OutputStream tempWriter = new BufferedOutputStream(new CheckedOutputStream(tempOutputStream, writeChecksum));
+			TaskCodec.TaskWriter taskWriter = codec.newWriter(tempWriter);
+			for (Task task : tasks) {
+				taskWriter.write(task);
+			}
+			taskWriter.finish();
+			
+			syncTime = syncStorage(tempOutputStream.getChannel());
+		}
+		replaceFile(tempFile, target);
+		return syncTime;
+	}
+	
+	/**
+	 * This method forces a new TaskStorage to the disk before it replaces the old one, unless durability is NONE
+	 * 
+	 * @param channel		the channel of the new TaskStorage
+	 * @return				the time in nanoseconds spent forcing TaskStorage
+	 * @throws IOException	if TaskStorage could not be forced
+	 */
+	private long syncStorage(FileChannel channel) throws IOException {
+		if (!DURABILITY_POLICY.isSynced()) {
+			return 0;
+		}
+		
+		long syncStart = System.nanoTime();
+		channel.force(true);
+		return System.nanoTime() - syncStart;
+	}
+	
+	/**
+	 * This method replaces TaskStorage with a new file in the same directory by renaming it, 
+	 * so TaskStorage is always either the old or the new file in whole
+	 * 
+	 * @param newFile		the new TaskStorage
+	 * @throws IOException	if TaskStorage could not be replaced
+	 */
+	private void replaceStorage(File newFile) throws IOException {
+		replaceFile(newFile, file);
+	}
+	
+	private void replaceFile(File newFile, File target) throws IOException {
+		try {
+			Files.move(newFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			log.log(Level.WARNING, target.getName() + " could not be replaced atomically.\n");
+			Files.move(newFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * This method checkpoints the task list once enough entries have been appended to the journal
+	 * 
+	 * @throws Exception	if the task list could not be written
+	 */
+	private void checkpointIfNeeded() throws Exception {
+		if (journal.getSize() >= CHECKPOINT_INTERVAL) {
+			checkpoint();
+		}
+	}
+
+	/**
+	 * This method changes location of the Storage
+	 * TaskStorage and its journal are moved rather than rewritten, by renaming them on the same file system
+	 * or by copying them across file systems. The new file is complete before the old one is removed,
+	 * and StorageInformation.json is only changed after the Storage has moved.
+	 * 
+	 * @param directory
+	 * @return				false if the Storage cannot be moved to the directory
+	 * @throws Exception	if the task was unable to be written
+	 */
+	public boolean changeStorageLocation(String directory) throws Exception {
+		assert(file.exists());
+		assert(directory.length() >= 2);
+		assert((directory.charAt(directory.length() - 1) == '\\') || (directory.charAt(directory.length() - 1) == '/') == true);
+		
+		stopWatcher();
+		lockStorage();
+		try {
+			File newFile = new File(directory + STORAGE_NAME + STORAGE_TYPE);
+			File newJournalFile = new File(directory + STORAGE_NAME + JOURNAL_TYPE);
+		
+			if (newFile.exists() && Files.isSameFile(file.toPath(), newFile.toPath())) {
+				STORAGE_DIRECTORY = directory;
+				writeStorageInformation();
+			
+				log.log(Level.INFO, "Storage is already at the specified location.\n");
+				return true;
+			}
+		
+			File newDirectory = newFile.getAbsoluteFile().getParentFile();
+			if (newDirectory == null || !Files.isDirectory(newDirectory.toPath()) || !Files.isWritable(newDirectory.toPath())) {
+				log.log(Level.WARNING, "Not able to create file at specified location, Storage is not moved.\n");
+				return false;
+			}
+		
+			// Checkpoint so that TaskStorage is complete and the journal only has its checkpoint
+			checkpoint();
+			journal.close();
+		
+			try {
+				moveFile(file, newFile);
+			} catch (IOException e) {
+				journal.open();
+				log.log(Level.WARNING, "Storage could not be moved.\n");
+				throw new Exception(ERROR_STORAGE_NOT_MOVED);
+			}
+		
+			// the archive and the shards are moved with the Storage, and keep their tasks if they were read
+			archive.close();
+			ArrayList<File> movedFiles = new ArrayList<File>();
+			try {
+				for (File storageFile : getStorageFiles()) {
+					moveFile(storageFile, new File(directory + storageFile.getName()));
+					movedFiles.add(storageFile);
+				}
+			} catch (IOException e) {
+				// move the Storage back so that it stays with its archive and shards
+				log.log(Level.WARNING, "Archive or shards could not be moved with the Storage.\n");
+				for (File movedFile : movedFiles) {
+					moveFile(new File(directory + movedFile.getName()), movedFile);
+				}
+				moveFile(newFile, file);
+				moveFile(newJournalFile, getJournalFile());
+				journal.open();
+				reopenArchive();
+				throw new Exception(ERROR_STORAGE_NOT_MOVED);
+			}
+		
+			try {
+				moveFile(getJournalFile(), newJournalFile);
+			} catch (IOException e) {
+				// the journal only has the checkpoint, so TaskStorage can be opened without it
+				log.log(Level.WARNING, "Journal could not be moved with the Storage.\n");
+				Files.deleteIfExists(getJournalFile().toPath());
+			}
+		
+			STORAGE_DIRECTORY = directory;
+			file = newFile;
+			writeStorageInformation();
+			
+			// the lock file of the old location is no longer used once the lock of the new location is held
+			File previousLockFile = storageLock.getFile();
+			openLock();
+			Files.deleteIfExists(previousLockFile.toPath());
+		
+			journal = createJournal();
+			journal.open();
+			archive = new StorageJournal(getArchiveFile(), gson);
+			archive.setDurability(DURABILITY_POLICY);
+			archive.setLock(storageLock);
+			reopenArchive();
+		
+			log.log(Level.INFO, "Storage location successfully changed.\n");
+			return true;
+		} finally {
+			unlockStorage(true);
+			startWatcher();
+		}
+	}
+	
+	/**
+	 * @return	the archive and the shards of TaskStorage, which are moved with it
+	 */
+	private ArrayList<File> getStorageFiles() {
+		ArrayList<File> storageFiles = new ArrayList<File>();
+		storageFiles.add(getArchiveFile());
+		if (SHARDS != null) {
+			for (StorageShard shard : SHARDS) {
+				storageFiles.add(getShardFile(shard.getName()));
+			}
+		}
+		return storageFiles;
+	}
+	
+	/**
+	 * This method moves a file by renaming it, or by copying it to a temporary file which replaces the target
+	 * and then deleting it if the target is on another file system
+	 * 
+	 * @param source		the file to move
+	 * @param target		the path to move the file to, which is replaced if it exists
+	 * @throws IOException	if the file could not be moved
+	 */
+	private void moveFile(File source, File target) throws IOException {
+		if (!source.exists()) {
+			return;
+		}
+		
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return;
+		} catch (AtomicMoveNotSupportedException e) {
+			log.log(Level.INFO, source.getName() + " is copied as it is moved to another file system.\n");
+		}
+		
+		File tempTarget = new File(target.getPath() + TEMP_TYPE);
+		try (FileChannel sourceChannel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+				FileChannel targetChannel = FileChannel.open(tempTarget.toPath(), StandardOpenOption.CREATE, 
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = sourceChannel.size();
+			long position = 0;
+			while (position < size) {
+				position += sourceChannel.transferTo(position, size - position, targetChannel);
+			}
+			syncStorage(targetChannel);
+		}
+		
+		replaceFile(tempTarget, target);
+		Files.delete(source.toPath());
+	}
+	
+	/**
+	 * This method points StorageInformation.json to the current location and shards of the Storage
+	 * It is written to a temporary file which replaces it, so it is never left partly written.
+	 * 
+	 * @throws Exception	if StorageInformation.json could not be written
+	 */
+	private void writeStorageInformation() throws Exception {
+		File informationFile = new File(INFORMATION_DIRECTORY + INFORMATION_NAME + INFORMATION_TYPE);
+		File tempInformationFile = new File(informationFile.getPath() + TEMP_TYPE);
+		
+		try {
+			StorageInformation storageInformation = readStorageInformation();
+			storageInformation.setFileDirectory(STORAGE_DIRECTORY);
+			storageInformation.setShards(SHARDS);
+			storageInformation.setArchiveFilter(archiveFilter);
+			
+			try (BufferedWriter informationBufferedWriter = new BufferedWriter(new FileWriter(tempInformationFile.getAbsoluteFile()))) {
+				gson.toJson(storageInformation, informationBufferedWriter);
+			}
+			replaceFile(tempInformationFile, informationFile);
+		} catch (IOException | JsonParseException e) {
+			log.log(Level.WARNING, "Storage Information could not be written.\n");
+			throw new Exception(ERROR_INFORMATION_NOT_WRITTEN);
+		}
+	}
+	
+	private StorageInformation readStorageInformation() throws IOException {
+		File informationFile = new File(INFORMATION_DIRECTORY + INFORMATION_NAME + INFORMATION_TYPE);
+		try (BufferedReader informationBufferedReader = new BufferedReader(new FileReader(informationFile.getAbsoluteFile()))) {
+			return gson.fromJson(informationBufferedReader, StorageInformation.class);
+		}
+	}
+	
+	//@@author A0145732H
+	/**
+	 * This method reads all task existing in the Storage
+	 * The same snapshot is returned until the task list is modified, so reading does not copy the task list.
+	 * Changes made by other instances and shards which have not been read yet are read first.
+	 * 
+	 * @return	an immutable snapshot of all the tasks in a sorted order
+	 */
+	public TaskSnapshot readAllTasks() {
+		boolean isLocked = lockStorageForRead();
+		try {
+			try {
+				loadShards(new ArrayList<String>(PENDING_SHARDS));
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Returning only the tasks which could be read.\n");
+			}
+			
+			getTaskListSnapshot();
+		} finally {
+			unlockStorageForRead(isLocked);
+		}
+
+		log.log(Level.INFO, "Returning all the tasks in a sorted order.\n");
+		return taskListSnapshot;
+	}
+	
+	/**
+	 * This method makes a new snapshot of the task list if it was modified since the last snapshot
+	 * A mapped task list is snapshotted with only the tasks modified since it was mapped, without reading the rest.
+	 * 
+	 * @return	the snapshot of the task list as it is now
+	 */
+	private static TaskSnapshot getTaskListSnapshot() {
+		if (taskListSnapshot.getVersion() != taskListVersion) {
+			if (mappedTaskList != null) {
+				taskListSnapshot = mappedTaskList.modify(REMOVED_MAPPED_TASKS, TASK_LIST, taskListVersion);
+			} else {
+				taskListSnapshot = new TaskSnapshot(TASK_LIST.toArray(new Task[TASK_LIST.size()]), taskListVersion);
+			}
+		}
+		return taskListSnapshot;
+	}
+	
+	/**
+	 * This method locks the Storage for a read, where a read which could not lock it returns the tasks as they were last read
+	 * The generations are read without locking the lock file, which is only locked to read the changes of another instance,
+	 * so reads of an unchanged Storage do not wait for each other across instances.
+	 * 
+	 * @return	true if the Storage was locked, and is to be unlocked with unlockStorageForRead
+	 */
+	private boolean lockStorageForRead() {
+		return lockStorageForRead(null);
+	}
+	
+	/**
+	 * @param parsedTaskList	TaskStorage as it was read without the lock, or null if it was not read
+	 */
+	private boolean lockStorageForRead(ParsedTaskList parsedTaskList) {
+		try {
+			storageLock.lockForRead();
+		} catch (IOException | RuntimeException e) {
+			log.log(Level.WARNING, "Storage could not be locked, returning the tasks as they were last read.\n");
+			return false;
+		}
+		
+		try {
+			if (storageLock.isOutermost() && isStorageChanged()) {
+				storageLock.lockFile();
+				refreshStorage(parsedTaskList);
+			}
+			return true;
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Changes could not be read, returning the tasks as they were last read: " + e.getMessage() + "\n");
+			unlockStorageForRead(true);
+			return false;
+		}
+	}
+	
+	/**
+	 * This method unlocks the Storage after a read, where the Storage is only unlocked as after a modification 
+	 * if the changes of another instance were read, so a read does not take the time of a change it did not read
+	 */
+	private void unlockStorageForRead(boolean isLocked) {
+		if (!isLocked) {
+			return;
+		}
+		
+		try {
+			if (storageLock.isFileLocked()) {
+				unlockStorage(false);
+			} else {
+				storageLock.unlock();
+			}
+		} catch (Exception e) {
+			log.log(Level.WARNING, "Storage could not be unlocked: " + e.getMessage() + "\n");
+		}
+	}
+	
+	/**
+	 * This method reads the tasks which are scheduled at some time between two dates, i.e. events overlapping the dates
+	 * and deadlines between them, reading only the shards which can have such tasks if the Storage is sharded
+	 * The tasks are found through the interval index, so only the tasks between the dates are looked at.
+	 * 
+	 * @param from			the first date
+	 * @param to			the last date
+	 * @return				the tasks between the dates in a sorted order
+	 * @throws Exception	if the shards could not be read
+	 */
+	public ArrayList<Task> readTasksBetween(LocalDate from, LocalDate to) throws Exception {
+		boolean isLocked = lockStorageForRead();
+		try {
+			if (SHARDS != null) {
+				ArrayList<String> shardNames = new ArrayList<String>();
+				for (StorageShard shard : SHARDS) {
+					if (shard.overlaps(from, to)) {
+						shardNames.add(shard.getName());
+					}
+				}
+				loadShards(shardNames);
+			}
+			
+			ArrayList<Task> tasksBetween = DATE_INDEX.findBetween(from.atStartOfDay(), to.atTime(LocalTime.MAX));
+			if (mappedTaskList != null) {
+				// Only the tasks of the mapped task list between the dates are read
+				for (Task task : mappedTaskList.findBetween(from.atStartOfDay(), to.atTime(LocalTime.MAX))) {
+					if (!REMOVED_MAPPED_TASKS.contains(task)) {
+						tasksBetween.add(task);
+					}
+				}
+			}
+			tasksBetween.sort(null);
+			return tasksBetween;
+		} finally {
+			unlockStorageForRead(isLocked);
+		}
+	}
+	
+	/**
+	 * This method reads the archived tasks, reading the archive the first time they are needed
+	 * 
+	 * @return	an immutable snapshot of the archived tasks in a sorted order
+	 */
+	public TaskSnapshot readArchivedTasks() {
+		boolean isLocked = lockStorageForRead();
+		try {
+			loadArchive();
+			return archiveSnapshot;
+		} finally {
+			unlockStorageForRead(isLocked);
+		}
+	}
+	
+	/**
+	 * This method reads all the tasks in the Storage together with the archived tasks, i.e. to search all tasks
+	 * 
+	 * @return	an immutable snapshot of all the tasks and archived tasks in a sorted order
+	 */
+	public TaskSnapshot readAllTasksWithArchive() {
+		TaskSnapshot tasks = readAllTasks();
+		TaskSnapshot archivedTasks = readArchivedTasks();
+		if (archivedTasks.isEmpty()) {
+			return tasks;
+		}
+		
+		// Merge the two sorted snapshots, where a task in the Storage replaces an equal archived task
+		Task[] mergedTasks = new Task[tasks.size() + archivedTasks.size()];
+		int taskIndex = 0;
+		int archivedTaskIndex = 0;
+		int mergedTaskCount = 0;
+		while (taskIndex < tasks.size() || archivedTaskIndex < archivedTasks.size()) {
+			if (archivedTaskIndex == archivedTasks.size()) {
+				mergedTasks[mergedTaskCount++] = tasks.get(taskIndex++);
+			} else if (taskIndex == tasks.size()) {
+				mergedTasks[mergedTaskCount++] = archivedTasks.get(archivedTaskIndex++);
+			} else {
+				int comparison = tasks.get(taskIndex).compareTo(archivedTasks.get(archivedTaskIndex));
+				if (comparison == 0) {
+					archivedTaskIndex++;
+				} else if (comparison < 0) {
+					mergedTasks[mergedTaskCount++] = tasks.get(taskIndex++);
+				} else {
+					mergedTasks[mergedTaskCount++] = archivedTasks.get(archivedTaskIndex++);
+				}
+			}
+		}
+		
+		return new TaskSnapshot(Arrays.copyOf(mergedTasks, mergedTaskCount), tasks.getVersion());
+	}
+	
+	/**
+	 * This method searches all the tasks in the Storage for tasks containing all of the keywords,
+	 * using the n-gram indexes of their names instead of searching every task name
+	 * 
+	 * @param keywords	the keywords to search for in the task names, ignoring case
+	 * @return			the tasks containing all of the keywords in a sorted order
+	 */
+	public ArrayList<Task> searchTasks(String[] keywords) {
+		return searchTasks(keywords, false);
+	}
+	
+	/**
+	 * This method searches all the tasks in the Storage, and the archived tasks if they are asked for, 
+	 * for tasks containing all of the keywords, using the n-gram indexes of their names instead of searching every task name
+	 * The archive is only read when it is searched, i.e. when completed tasks are listed.
+	 * 
+	 * @param keywords			the keywords to search for in the task names, ignoring case
+	 * @param isArchiveSearched	true to search the archived tasks too
+	 * @return					the tasks containing all of the keywords in a sorted order
+	 */
+	public ArrayList<Task> searchTasks(String[] keywords, boolean isArchiveSearched) {
+		assert(keywords != null);
+		
+		HashSet<Task> foundTasks;
+		boolean isLocked = lockStorageForRead();
+		try {
+			try {
+				loadShards(new ArrayList<String>(PENDING_SHARDS));
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Searching only the tasks which could be read.\n");
+			}
+			if (isArchiveSearched) {
+				loadArchive();
+			}
+			
+			foundTasks = KEYWORD_INDEX.search(keywords, TASK_LIST);
+			if (mappedTaskList != null) {
+				// Only the tasks of the mapped task list with the keywords are read
+				for (Task task : mappedTaskList.search(keywords)) {
+					if (!REMOVED_MAPPED_TASKS.contains(task)) {
+						foundTasks.add(task);
+					}
+				}
+			}
+			if (isArchiveSearched && ARCHIVE_LIST != null) {
+				// An equal archived task is not added, so the task in the Storage replaces it
+				foundTasks.addAll(ARCHIVE_KEYWORD_INDEX.search(keywords, ARCHIVE_LIST));
+			}
+		} finally {
+			unlockStorageForRead(isLocked);
+		}
+		
+		ArrayList<Task> sortedTasks = new ArrayList<Task>(foundTasks);
+		sortedTasks.sort(null);
+		
+		log.log(Level.INFO, "Found " + sortedTasks.size() + " tasks with the keywords.\n");
+		return sortedTasks;
+	}
+	
+	/**
+	 * This method checks whether an equal task exists in the Storage using the hash index
+	 * Archived tasks are checked too, reading the archive if the task could have been archived.
+	 * 
+	 * @param task	the task to look for
+	 * @return		true if an equal task exists
+	 */
+	public boolean containsTask(Task task) {
+		boolean isLocked = lockStorageForRead();
+		try {
+			try {
+				loadShardsOf(task);
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Shard of the task could not be read.\n");
+			}
+			if (isArchived(task)) {
+				return true;
+			}
+			return TASK_INDEX.contains(task) || isMapped(task);
+		} finally {
+			unlockStorageForRead(isLocked);
+		}
+	}
+	
+	/**
+	 * Following methods modify the task list and its index together, replacing any equal task when adding.
+	 * Every modification marks the task list as modified so that the next read makes a new snapshot,
+	 * and marks the shard of the task as modified so that only that shard is rewritten.
+	 */
+	private static void addToTaskList(Task task) {
+		removeFromTaskList(task);
+		TASK_LIST.add(task);
+		TASK_INDEX.add(task);
+		KEYWORD_INDEX.add(task);
+		DATE_INDEX.add(task);
+		taskListVersion++;
+		markShardDirty(task);
+	}
+	
+	private static boolean removeFromTaskList(Task task) {
+		if (!TASK_INDEX.remove(task)) {
+			return removeFromMappedTaskList(task);
+		}
+		TASK_LIST.remove(task);
+		KEYWORD_INDEX.remove(task);
+		DATE_INDEX.remove(task);
+		taskListVersion++;
+		markShardDirty(task);
+		return true;
+	}
+	
+	private static void clearTaskList() {
+		TASK_LIST.clear();
+		TASK_INDEX.clear();
+		KEYWORD_INDEX.clear();
+		DATE_INDEX.clear();
+		taskListVersion++;
+	}
+	
+	/**
+	 * A task of the mapped task list is only marked as removed, as TaskStorage.bin is not rewritten until the next checkpoint
+	 */
+	private static boolean removeFromMappedTaskList(Task task) {
+		if (!isMapped(task)) {
+			return false;
+		}
+		REMOVED_MAPPED_TASKS.add(task);
+		taskListVersion++;
+		return true;
+	}
+	
+	private static boolean isMapped(Task task) {
+		return mappedTaskList != null && !REMOVED_MAPPED_TASKS.contains(task) && mappedTaskList.contains(task);
+	}
+	
+	private static boolean isTaskListEmpty() {
+		return TASK_LIST.isEmpty() && (mappedTaskList == null || REMOVED_MAPPED_TASKS.size() == mappedTaskList.size());
+	}
+
+	//@@author A0100081E
+	/**
+	 * This method writes a given task to the Storage
+	 * 
+	 * @param task
+	 * @throws Exception	if the task was unable to be written
+	 */
+	public void writeTask(Task task) throws Exception {
+		assert(file.exists());
+		
+		lockStorage();
+		// The generation is only advanced once the task is journaled, so other instances are not refreshed for nothing
+		boolean isModified = false;
+		try {
+			try {
+				loadShardsOf(task);
+			
+				// Replace any equal task so that the task list matches the journal when it is replayed
+				addToTaskList(task);
+			
+				journal.append(StorageJournal.Operation.ADD, task);
+				isModified = true;
+				checkpointIfNeeded();
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Task could not be written.\n");
+				throw new Exception(ERROR_TASK_NOT_WRITTEN);
+			}
+		
+			log.log(Level.INFO, "Successfully written to task list.\n");
+		} finally {
+			unlockStorage(isModified);
+		}
+	}
+	
+	/**
+	 * This method writes many tasks to the Storage with a single flush
+	 * Batches too large for the journal are written with a checkpoint instead.
+	 * 
+	 * @param tasks			the tasks to write
+	 * @throws Exception	if the tasks were unable to be written
+	 */
+	public void writeTasks(Collection<Task> tasks) throws Exception {
+		assert(file.exists());
+		
+		lockStorage();
+		boolean isModified = false;
+		try {
+			if (tasks.isEmpty()) {
+				return;
+			}
+		
+			try {
+				loadShardsOf(tasks);
+			
+				ArrayList<StorageJournal.Entry> entries = new ArrayList<StorageJournal.Entry>(tasks.size());
+			
+				for (Task task : tasks) {
+					addToTaskList(task);
+					entries.add(new StorageJournal.Entry(StorageJournal.Operation.ADD, task));
+				}
+			
+				if (journal.getSize() + entries.size() >= CHECKPOINT_INTERVAL) {
+					checkpoint();
+				} else {
+					journal.append(entries);
+				}
+				isModified = true;
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Tasks could not be written.\n");
+				throw new Exception(ERROR_TASK_NOT_WRITTEN);
+			}
+		
+			log.log(Level.INFO, "Successfully written " + tasks.size() + " tasks to task list.\n");
+		} finally {
+			unlockStorage(isModified);
+		}
+	}
+	
+	//@@author A0145732H
+	/**
+	 * This method removes a given task from the Storage
+	 * 
+	 * @param task
+	 * @throws Exception	if the task was unable to be removed
+	 */
+	public void removeTask(Task task) throws Exception {
+		assert(file.exists());
+		
+		lockStorage();
+		boolean isModified = false;
+		try {
+			boolean isRemoved = false;
+			try {
+				loadShardsOf(task);
+				isRemoved = removeFromTaskList(task);
+			
+				if (isRemoved) {
+					journal.append(StorageJournal.Operation.REMOVE, task);
+					isModified = true;
+					checkpointIfNeeded();
+				} else {
+					isRemoved = removeFromArchive(task);
+					isModified = isRemoved;
+				}
+			} catch (Exception e) {
+				isRemoved = false;
+				log.log(Level.WARNING, "Task could not be removed.\n");
+				throw new Exception(ERROR_TASK_NOT_REMOVED);
+			}
+		
+			if (!isRemoved) {
+				throw new Exception(String.format(ERROR_TASK_NOT_FOUND, task.getName()));
+			}
+		
+			log.log(Level.INFO, "Successfully removed task from task list.\n");
+		} finally {
+			unlockStorage(isModified);
+		}
+	}
+
+	/**
+	 * This method updates a task in the task list with the new task in Storage
+	 * The old task is replaced and the replacement is persisted as a single journal entry,
+	 * so the task is never missing from the Storage.
+	 * 
+	 * @param oldTask		the task to search for and update
+	 * @param newTask		the updated version of the task to replace the old task
+	 * @throws Exception	if there are no tasks or if the old task was not found
+	 */
+	public void updateTask(Task oldTask, Task newTask) throws Exception {
+		assert(file.exists());
+		
+		lockStorage();
+		boolean isModified = false;
+		try {
+			loadShardsOf(oldTask, newTask);
+			if (isTaskListEmpty() && PENDING_SHARDS.isEmpty() && isArchiveEmpty()) {
+				throw new Exception(ERROR_EMPTY_TASK_LIST);
+			}
+
+			boolean isUpdated = false;
+			try {
+				if (removeFromTaskList(oldTask)) {
+					addToTaskList(newTask);
+					isUpdated = true;
+				
+					journal.append(new StorageJournal.Entry(oldTask, newTask));
+					isModified = true;
+					checkpointIfNeeded();
+				} else if (isArchived(oldTask)) {
+					// An archived task is updated by adding the new task to the Storage before removing it from the archive
+					addToTaskList(newTask);
+					journal.append(StorageJournal.Operation.ADD, newTask);
+					isModified = true;
+					isUpdated = removeFromArchive(oldTask);
+					checkpointIfNeeded();
+				}
+			} catch (Exception e) {
+				log.log(Level.WARNING, "Task could not be updated.\n");
+				throw new Exception(ERROR_TASK_NOT_UPDATED);
+			}
+		
+			if (!isUpdated) {
+				throw new Exception(String.format(ERROR_TASK_NOT_FOUND, oldTask.getName()));
+			}
+		
+			log.log(Level.INFO, "Successfully updated task from task list.\n");
+		} finally {
+			unlockStorage(isModified);
+		}
+	}
+
+	//@@author A0100081E
+	/**
+	 * This method clears the task list from the Storage
+	 * 
+	 * @throws Exception	if the task was unable to be cleared
+	 */
+	public void clearAllTasks() throws Exception {
+		assert(file.exists());
+		
+		lockStorage();
+		boolean isModified = false;
+		try {
+			// The cleared tasks may still be read, i.e. to undo the clear, from the snapshots of the mapped TaskStorage.bin,
+			// as it is replaced by renaming rather than rewritten in place
+			mappedTaskList = null;
+			REMOVED_MAPPED_TASKS.clear();
+			clearTaskList();
+			if (SHARDS != null) {
+				// Every shard is rewritten empty, i.e. deleted, without being read
+				for (StorageShard shard : SHARDS) {
+					DIRTY_SHARDS.add(shard.getName());
+				}
+				PENDING_SHARDS.clear();
+				isStorageDirty = true;
+			}
+			if (archive != null && getArchiveFile().exists()) {
+				archive.clear();
+				isModified = true;
+				ARCHIVE_LIST = new TreeSet<Task>();
+				ARCHIVE_KEYWORD_INDEX.clear();
+				archiveSnapshot = TaskSnapshot.EMPTY;
+			}
+		
+			// Rewriting an empty task list is cheaper than journaling the removal of every task
+			checkpoint();
+			isModified = true;
+		
+			log.log(Level.INFO, "Successfully cleared task from task list.\n");
+		} finally {
+			unlockStorage(isModified);
+		}
+	}
+	
+	/**
+	 * Following are public methods that accesses private attributes in StorageManager
 	 */
 	public String getStorageDirectory() {
 		return StorageManager.STORAGE_DIRECTORY;
@@ -587,6 +2563,130 @@ public class StorageManager {
 	public void setDefaultType(String type) {
 		StorageManager.DEFAULT_STORAGE_TYPE = type;
 	}
+
+	public void setCheckpointInterval(int interval) {
+		assert(interval > 0);
+		StorageManager.CHECKPOINT_INTERVAL = interval;
+	}
+	
+	/**
+	 * This method sets mutations to be written to the journal by a separate thread, one flush per window or batch
+	 * It takes effect when the Storage is next opened. Closing the Storage writes every queued mutation.
+	 * 
+	 * @param window	the longest time in milliseconds a mutation can be lost if the program crashes, or 0 to write each mutation
+	 * @param batchSize	the number of queued mutations that are written without waiting for the window
+	 */
+	public void setGroupCommit(long window, int batchSize) {
+		assert(window >= 0);
+		assert(batchSize > 0);
+		StorageManager.COMMIT_WINDOW = window;
+		StorageManager.COMMIT_BATCH_SIZE = batchSize;
+	}
+	
+	/**
+	 * This method sets the directory of TaskStorage to be watched, so that changes made outside this instance, 
+	 * i.e. by another instance or a sync tool, are read in the background as they are made
+	 * It takes effect when the Storage is next opened.
+	 * 
+	 * @param isWatched	true if the Storage is watched
+	 */
+	public void setWatchedStorage(boolean isWatched) {
+		StorageManager.WATCHED_STORAGE = isWatched;
+	}
+	
+	/**
+	 * This method sets how often TaskStorage and its journal are forced to the disk
+	 * It takes effect for the journal when the Storage is next opened.
+	 * 
+	 * @param policy	ALWAYS, NONE or DurabilityPolicy.periodic(period)
+	 */
+	public void setDurabilityPolicy(DurabilityPolicy policy) {
+		assert(policy != null);
+		StorageManager.DURABILITY_POLICY = policy;
+	}
+	
+	/**
+	 * This method sets how long after they end completed tasks are moved to the archive
+	 * 
+	 * @param days	the number of days after which completed tasks are archived, or a negative number to never archive
+	 */
+	public void setArchiveAge(long days) {
+		StorageManager.ARCHIVE_AGE = days;
+	}
+	
+	/**
+	 * This method sets whether TaskStorage is split into month shards, so that a mutation only rewrites its shard
+	 * It takes effect when the Storage is next opened, when TaskStorage is split or its shards are merged back.
+	 * 
+	 * @param isSharded		true to split TaskStorage into month shards
+	 * @param isLazy		true to read a shard only when its tasks are needed, instead of when the Storage is opened
+	 */
+	public void setShardedStorage(boolean isSharded, boolean isLazy) {
+		StorageManager.SHARDED_STORAGE = isSharded;
+		StorageManager.LAZY_SHARD_LOADING = isLazy;
+	}
+	
+	/**
+	 * This method sets how much TaskStorage is compressed if its type is compressed, i.e. .json.gz or .bin.gz
+	 * It takes effect when the Storage is next opened.
+	 * 
+	 * @param level	the Deflater level from 1 (fastest) to 9 (smallest), or Deflater.DEFAULT_COMPRESSION
+	 */
+	public void setCompressionLevel(int level) {
+		assert(level == Deflater.DEFAULT_COMPRESSION || (level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION));
+		StorageManager.COMPRESSION_LEVEL = level;
+	}
+	
+	public void setMemoryMappedThreshold(long threshold) {
+		assert(threshold >= 0);
+		StorageManager.MEMORY_MAPPED_THRESHOLD = threshold;
+	}
+	
+	public File getArchiveFile() {
+		return new File(STORAGE_DIRECTORY + STORAGE_NAME + ARCHIVE_TYPE);
+	}
+	
+	public File getShardFile(Task task) {
+		String shardName = StorageShard.getShardName(task);
+		if (shardName == null) {
+			return file;
+		}
+		return getShardFile(shardName);
+	}
+	
+	public File getLockFile() {
+		return new File(STORAGE_DIRECTORY + STORAGE_NAME + LOCK_TYPE);
+	}
+	
+	public File getJournalFile() {
+		return new File(STORAGE_DIRECTORY + STORAGE_NAME + JOURNAL_TYPE);
+	}
+	
+	public long getCheckpointTime() {
+		return checkpointTime;
+	}
+	
+	public long getVerificationTime() {
+		return StorageManager.verificationTime;
+	}
+	
+	/**
+	 * This method gets the version of the task list, which changes whenever the task list is modified
+	 * If the Storage is watched, changes made outside this instance are read in the background, 
+	 * otherwise they are read first.
+	 * 
+	 * @return	the version of the task list
+	 */
+	public long getTaskListVersion() {
+		if (storageWatcher == null) {
+			unlockStorageForRead(lockStorageForRead());
+		}
+		return taskListVersion;
+	}
+	
+	public int getDamagedRecordCount() {
+		return StorageManager.damagedRecordCount;
+	}
 	
 	public File getStorageFile() {
 		assert(file.exists());
@@ -1,19 +1,52 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 
 public class StorageManagerStub extends StorageManager {
 	ArrayList<Task> tasks = new ArrayList<Task>();
+	KeywordIndex keywordIndex = new KeywordIndex();
+	long taskListVersion = 0;
 	
 	public StorageManagerStub() {
 	}
 	
 	public void writeTask(Task task) {
 		tasks.add(task);
+		keywordIndex.add(task);
+		taskListVersion++;
 	}
-	public ArrayList<Task> readAllTasks() {
-		return tasks;
+	
+	public void writeTasks(Collection<Task> tasks) {
+		for (Task task : tasks) {
+			writeTask(task);
+		}
+	}
+	public boolean containsTask(Task task) {
+		return tasks.contains(task);
+	}
+	
+	public TaskSnapshot readAllTasks() {
+		return new TaskSnapshot(tasks.toArray(new Task[tasks.size()]), 0);
+	}
+	
+	public ArrayList<Task> searchTasks(String[] keywords, boolean isArchiveSearched) {
+		HashSet<Task> foundTasks = keywordIndex.search(keywords, tasks);
+		ArrayList<Task> orderedTasks = new ArrayList<Task>();
+		for (Task task : tasks) {
+			if (foundTasks.contains(task)) {
+				orderedTasks.add(task);
+			}
+		}
+		return orderedTasks;
 	}
 	
 	public void clearTasks() {
 		tasks.clear();
+		keywordIndex.clear();
+		taskListVersion++;
+	}
+	
+	public long getTaskListVersion() {
+		return taskListVersion;
 	}
 }
@@ -2,19 +2,33 @@
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
 public class StorageManagerTest {
 	// Note: running the tests causes it to read and write from the eclipse project root folder instead of /bin. 
 	// Not sure if this can be changed
 	private static final String TEST_STORAGE_DIRECTORY = "./";
 	private static final String TEST_STORAGE_FILENAME = "TestTaskStorage";
 	private static final String TEST_STORAGE_FILETYPE = ".json";
+	private static final String TEST_JOURNAL_FILETYPE = ".journal";
+	private static final String TEST_LOCK_FILETYPE = ".lock";
+	private static final String TEST_BINARY_FILETYPE = ".bin";
+	private static final String TEST_COMPRESSED_FILETYPE = ".json.gz";
+	private static final String TEST_MOVE_DIRECTORY = "./TestMoveDirectory/";
 	private static final String TEST_INFORMATION_DIRECTORY = "./";
 	private static final String TEST_INFORMATION_FILENAME = "TestStorageInformation";
 	private static final String TEST_INFORMATION_FILETYPE = ".json";
@@ -61,6 +75,8 @@ public class StorageManagerTest {
 		storageManager.setInformationType(DEFAULT_INFORMATION_FILETYPE);
 
 		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_LOCK_FILETYPE);
 
 		try {
 			storageManager.getStorageFile().exists();
@@ -88,6 +104,157 @@ public class StorageManagerTest {
 		assertEquals(storageManager.getStorageDirectory(), "./");
 	}
 	
+	@Test
+	public void testMoveStorage() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		File directory = new File(TEST_MOVE_DIRECTORY);
+		directory.mkdir();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		taskList.add(task1);
+		taskList.add(task2);
+		
+		assertEquals(storageManager.changeStorageLocation(TEST_MOVE_DIRECTORY), true);
+		
+		assertEquals(new File(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE).exists(), false); // Tests that the Storage is moved
+		assertEquals(new File(TEST_MOVE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE).exists(), true);
+		assertEquals(storageManager.getStorageDirectory(), TEST_MOVE_DIRECTORY);
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the moved Storage is opened
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		assertEquals(storageManager.changeStorageLocation(TEST_STORAGE_DIRECTORY), true); // Tests moving back, i.e. undo
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(directory.list().length, 0);
+		
+		storageManager.clearAllTasks();
+		directory.delete();
+	}
+	
+	@Test
+	public void testArchive() throws Exception {
+		Task task1 = new Task("1", LocalDateTime.now().minusDays(1), true);
+		Task task2 = new Task("2", LocalDateTime.now().minusDays(1), false);
+		Task task3 = new Task("3", true);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		ArrayList<Task> archivedTaskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		storageManager.writeTask(task3);
+		
+		assertEquals(storageManager.getArchiveFile().exists(), false); // Tests that the archive is only created when needed
+		
+		storageManager.setArchiveAge(0);
+		storageManager.openStorage();
+		
+		taskList.add(task2);
+		taskList.add(task3);
+		archivedTaskList.add(task1);
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that only old completed tasks are archived
+		assertEquals(storageManager.readArchivedTasks(), archivedTaskList);
+		assertEquals(storageManager.readAllTasksWithArchive().size(), 3);
+		assertEquals(storageManager.readAllTasksWithArchive().get(0), task1);
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.containsTask(task1), true); // Tests that an archive which is not read yet is checked
+		storageManager.openStorage();
+		
+		// Tests that checking a task which was never archived does not read the archive
+		File archiveFile = storageManager.getArchiveFile();
+		byte[] archiveBytes = Files.readAllBytes(archiveFile.toPath());
+		Files.write(archiveFile.toPath(), "damaged\n".getBytes());
+		assertEquals(storageManager.containsTask(new Task("4", LocalDateTime.now().minusDays(1), true)), false);
+		Files.write(archiveFile.toPath(), archiveBytes);
+		assertEquals(storageManager.readArchivedTasks(), archivedTaskList);
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.searchTasks(new String[] {"1"}).isEmpty(), true); // Tests that searching leaves out the archive
+		assertEquals(storageManager.searchTasks(new String[] {"1"}, true), archivedTaskList); // Tests searching the archive when asked
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readArchivedTasks(), archivedTaskList); // Tests that the archive is read again
+		
+		storageManager.removeTask(task1);
+		
+		assertEquals(storageManager.readArchivedTasks().isEmpty(), true); // Tests removing an archived task
+		assertEquals(storageManager.readAllTasks(), taskList);
+		
+		storageManager.setArchiveAge(-1);
+		storageManager.clearAllTasks();
+		storageManager.getArchiveFile().delete();
+	}
+	
+	@Test
+	public void testShardedStorage() throws Exception {
+		Task task1 = new Task("1", LocalDateTime.of(2015, 10, 5, 12, 0), false);
+		Task task2 = new Task("2", LocalDateTime.of(2015, 11, 1, 12, 0), LocalDateTime.of(2015, 11, 3, 12, 0), false);
+		Task task3 = new Task("3", false);
+		Task task4 = new Task("4", LocalDateTime.of(2015, 10, 6, 12, 0), false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		storageManager.writeTask(task3);
+		taskList.add(task2); // events are ordered before deadlines
+		taskList.add(task1);
+		taskList.add(task3);
+		
+		storageManager.setShardedStorage(true, true);
+		storageManager.openStorage();
+		
+		File octoberShard = storageManager.getShardFile(task1);
+		File novemberShard = storageManager.getShardFile(task2);
+		assertEquals(octoberShard.exists(), true); // Tests that the Storage is split by month
+		assertEquals(novemberShard.exists(), true);
+		assertEquals(storageManager.getShardFile(task3), storageManager.getStorageFile());
+		
+		storageManager.openStorage();
+		File movedShard = new File(novemberShard.getPath() + ".moved");
+		novemberShard.renameTo(movedShard);
+		
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 10, 1), LocalDate.of(2015, 10, 31)).get(0), task1); // Tests that only the needed shard is read
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 10, 1), LocalDate.of(2015, 10, 31)).size(), 1);
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		movedShard.renameTo(novemberShard);
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the other shards are read when all tasks are needed
+		
+		// pad the November shard, so that it can be seen if it is rewritten
+		FileWriter shardWriter = new FileWriter(novemberShard, true);
+		shardWriter.write(" ");
+		shardWriter.close();
+		long novemberShardLength = novemberShard.length();
+		
+		storageManager.writeTask(task4);
+		storageManager.openStorage();
+		taskList.add(2, task4);
+		
+		assertEquals(novemberShard.length(), novemberShardLength); // Tests that only the modified shard is rewritten
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(storageManager.getDamagedRecordCount(), 1); // Tests that the padded shard does not match its checksum
+		assertEquals(new File(novemberShard.getPath() + ".corrupt").exists(), true);
+		
+		storageManager.setShardedStorage(false, false);
+		storageManager.openStorage();
+		
+		assertEquals(octoberShard.exists(), false); // Tests that the shards are merged back
+		assertEquals(novemberShard.exists(), false);
+		assertEquals(storageManager.readAllTasks(), taskList);
+		
+		storageManager.clearAllTasks();
+		deleteFile(novemberShard.getPath() + ".corrupt");
+	}
+	
 	@Test
 	public void testTaskFunctions() throws Exception {
 		Task task1 = new Task("1", false);
@@ -131,6 +298,788 @@ public class StorageManagerTest {
 		assertEquals(storageManager.readAllTasks(), emptyList); // Tests clearTask()
 	}
 	
+	@Test
+	public void testContainsTask() throws Exception {
+		Task task = new Task("1", false);
+		
+		storageManager.writeTask(task);
+		
+		assertEquals(storageManager.containsTask(new Task("1", true)), true); // Tests that isDone is ignored
+		assertEquals(storageManager.containsTask(new Task("2", false)), false);
+		
+		storageManager.removeTask(task);
+		
+		assertEquals(storageManager.containsTask(task), false); // Tests that removeTask() updates the index
+	}
+	
+	@Test
+	public void testWriteTasks() throws Exception {
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		for (int i = 0; i < 5; i++) {
+			taskList.add(new Task(Integer.toString(i), false));
+		}
+		
+		storageManager.writeTasks(taskList);
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests writeTasks()
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the batch was persisted
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testJournalReplay() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		Task completedTask2 = new Task("2", true);
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		storageManager.removeTask(task1);
+		storageManager.updateTask(task2, completedTask2);
+		taskList.add(completedTask2);
+		
+		assertNotEquals(storageManager.getJournalFile().length(), 0L); // Tests that mutations are journaled
+		
+		// reopening without closing the storage should replay the journal on top of TaskStorage.json
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests replay of the journal
+		assertEquals(storageManager.readAllTasks().get(0).isDone(), true); // Tests replay of updateTask()
+		assertEquals(storageManager.getDamagedRecordCount(), 0); // Tests verification of the journal
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testGroupCommit() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		Task task3 = new Task("3", false);
+		Task task4 = new Task("4", false);
+		Task task5 = new Task("5", false);
+		Task task6 = new Task("6", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.closeStorage();
+		storageManager.setGroupCommit(60000, 2);
+		storageManager.openStorage();
+		
+		storageManager.writeTask(task1);
+		taskList.add(task1);
+		
+		assertEquals(countJournalEntries(), 1); // Tests that a mutation is queued until the batch is full
+		
+		storageManager.writeTask(task2);
+		taskList.add(task2);
+		
+		long deadline = System.currentTimeMillis() + 5000;
+		while (countJournalEntries() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(countJournalEntries(), 3); // Tests that a full batch is committed
+		
+		storageManager.writeTask(task3);
+		taskList.add(task3);
+		
+		// reopening without closing the storage should commit the queued mutation before it is replayed
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that no queued mutation is lost
+		
+		storageManager.closeStorage();
+		storageManager.setGroupCommit(200, 100);
+		storageManager.openStorage();
+		int entryCount = countJournalEntries();
+		
+		storageManager.writeTask(task4);
+		taskList.add(task4);
+		
+		deadline = System.currentTimeMillis() + 5000;
+		while (countJournalEntries() < entryCount + 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(countJournalEntries(), entryCount + 1); // Tests that a mutation is committed once the window ends
+		
+		// another instance appends while a mutation is queued, so the commit thread has to replay its entry first
+		storageManager.writeTask(task5);
+		appendFromOtherInstance(task6);
+		taskList.add(task5);
+		taskList.add(task6);
+		
+		deadline = System.currentTimeMillis() + 5000;
+		while (countJournalEntries() < entryCount + 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(countJournalEntries(), entryCount + 3); // Tests that the queued mutation is committed after the other instance's
+		assertEquals(storageManager.readAllTasks(), taskList);
+		
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		storageManager.setGroupCommit(0, 1);
+		storageManager.openStorage();
+	}
+	
+	private static int countJournalEntries() throws IOException {
+		return Files.readAllLines(storageManager.getJournalFile().toPath()).size();
+	}
+	
+	/**
+	 * This method appends an added task to the journal as another instance would, while it holds the lock of the Storage
+	 */
+	private static void appendFromOtherInstance(Task task) throws Exception {
+		Gson gson = new GsonBuilder()
+				.registerTypeAdapter(Task.class, new TaskTypeAdapter())
+				.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+				.create();
+		StorageLock otherLock = new StorageLock(storageManager.getLockFile());
+		StorageJournal otherJournal = new StorageJournal(storageManager.getJournalFile(), gson);
+		otherLock.open();
+		otherJournal.setLock(otherLock);
+		otherJournal.open();
+		otherLock.lock();
+		otherJournal.append(StorageJournal.Operation.ADD, task);
+		otherLock.advance(false);
+		otherLock.unlock();
+		otherJournal.close();
+		otherLock.close();
+	}
+	
+	/**
+	 * @return	the generation of the Storage as another instance would read it
+	 */
+	private static long readGenerationFromOtherInstance() throws Exception {
+		StorageLock otherLock = new StorageLock(storageManager.getLockFile());
+		otherLock.open();
+		otherLock.lockForRead();
+		long generation = otherLock.getGeneration();
+		otherLock.unlock();
+		otherLock.close();
+		return generation;
+	}
+	
+	@Test
+	public void testMultipleInstances() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		Task task3 = new Task("3", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		taskList.add(task1);
+		
+		// another instance appends to the journal while it holds the lock of the Storage
+		appendFromOtherInstance(task2);
+		taskList.add(task2);
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the other instance's entries are replayed
+		
+		storageManager.writeTask(task3);
+		taskList.add(task3);
+		
+		// reopening should find the entries of both instances in the journal, each once
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the journal is shared
+		
+		// a removal which is rejected leaves the Storage unchanged for other instances
+		long generation = readGenerationFromOtherInstance();
+		try {
+			storageManager.removeTask(new Task("4", false));
+			fail();
+		} catch (Exception e) {
+			assertEquals(readGenerationFromOtherInstance(), generation); // Tests that the generation is not advanced
+		}
+		storageManager.writeTask(new Task("4", false));
+		assertTrue(readGenerationFromOtherInstance() > generation); // Tests that a written task advances the generation
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testAtomicCheckpoint() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.setDurabilityPolicy(DurabilityPolicy.ALWAYS);
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		taskList.add(task1);
+		taskList.add(task2);
+		
+		// write a partial temporary file, as if the program crashed in the middle of a checkpoint
+		File tempFile = new File(storageManager.getStorageFile().getPath() + ".tmp");
+		FileWriter tempWriter = new FileWriter(tempFile);
+		tempWriter.write("[{\"name\":\"1\",\"isDo");
+		tempWriter.close();
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the partial checkpoint is discarded
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		assertEquals(tempFile.exists(), false); // Tests that the temporary file replaced TaskStorage.json
+		
+		storageManager.setDurabilityPolicy(DurabilityPolicy.periodic(1000));
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testSearchTasks() throws Exception {
+		Task task1 = new Task("Apple pie", false);
+		Task task2 = new Task("banana split", false);
+		Task task3 = new Task("apple banana", LocalDateTime.of(2015, 10, 5, 12, 0), false);
+		Task completedTask3 = new Task("apple banana", LocalDateTime.of(2015, 10, 5, 12, 0), true);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		storageManager.writeTask(task3);
+		taskList.add(task3);
+		taskList.add(task1);
+		
+		assertEquals(storageManager.searchTasks(new String[] {"APP"}), taskList); // Tests a keyword within a word, ignoring case
+		
+		taskList.clear();
+		taskList.add(task3);
+		
+		assertEquals(storageManager.searchTasks(new String[] {"ban", "ple"}), taskList); // Tests that every keyword is found
+		assertEquals(storageManager.searchTasks(new String[] {"apple", "cherry"}).isEmpty(), true);
+		
+		storageManager.updateTask(task3, completedTask3);
+		storageManager.removeTask(task2);
+		
+		assertEquals(storageManager.searchTasks(new String[] {"banana"}), taskList); // Tests that the index follows mutations
+		assertEquals(storageManager.searchTasks(new String[] {"banana"}).get(0).isDone(), true);
+		assertEquals(storageManager.searchTasks(new String[] {"split"}).isEmpty(), true);
+		
+		// removing most of the tasks after the index is built should build it again from the task list
+		ArrayList<Task> cherryTasks = new ArrayList<Task>();
+		for (int i = 0; i < 10; i++) {
+			cherryTasks.add(new Task("cherry " + i, false));
+		}
+		storageManager.writeTasks(cherryTasks);
+		
+		assertEquals(storageManager.searchTasks(new String[] {"cherry"}).size(), 10);
+		
+		for (int i = 0; i < 8; i++) {
+			storageManager.removeTask(cherryTasks.get(i));
+		}
+		
+		assertEquals(storageManager.searchTasks(new String[] {"cherry"}), cherryTasks.subList(8, 10));
+		assertEquals(storageManager.searchTasks(new String[] {"ch", "9"}), cherryTasks.subList(9, 10)); // Tests keywords shorter than a trigram
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testSearchTasksEquivalence() throws Exception {
+		// names and keywords drawn from few characters, so that keywords are often found in several places in a name
+		String characters = "abAB c";
+		Random random = new Random(2103);
+		ArrayList<Task> randomTasks = new ArrayList<Task>();
+		LocalDateTime firstDateTime = LocalDateTime.of(2015, 1, 1, 0, 0);
+		for (int i = 0; i < 300; i++) {
+			String name = getRandomString(random, characters, 12);
+			if (random.nextBoolean()) {
+				randomTasks.add(new Task(name, random.nextBoolean()));
+			} else {
+				randomTasks.add(new Task(name, firstDateTime.plusHours(random.nextInt(365 * 24)), random.nextBoolean()));
+			}
+		}
+		randomTasks.add(new Task("", false));
+		storageManager.writeTasks(randomTasks);
+		
+		// completed tasks are archived, and the rest are split into month shards which are read when they are searched
+		storageManager.setArchiveAge(0);
+		storageManager.setShardedStorage(true, true);
+		assertSearchTasksEquivalence(random, characters);
+		
+		// the task list is mapped until a search reads it into the index
+		storageManager.setShardedStorage(false, false);
+		storageManager.openStorage();
+		storageManager.closeStorage();
+		writeStorageInformation(TEST_BINARY_FILETYPE);
+		storageManager.setMemoryMappedThreshold(0);
+		assertSearchTasksEquivalence(random, characters);
+		
+		storageManager.setArchiveAge(-1);
+		storageManager.clearAllTasks();
+		storageManager.getArchiveFile().delete();
+		storageManager.closeStorage();
+		storageManager.setMemoryMappedThreshold(16 * 1024 * 1024);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_BINARY_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		
+		writeStorageInformation(TEST_STORAGE_FILETYPE);
+		storageManager.openStorage();
+	}
+	
+	/**
+	 * This method checks that searching the Storage finds the same tasks in the same order as scanning every task name,
+	 * reopening the Storage every so often so that searches also start from shards and archives which are not read yet
+	 */
+	private static void assertSearchTasksEquivalence(Random random, String characters) throws Exception {
+		// equivalence partition for empty, short and long keywords, one or more of them, including none
+		for (int i = 0; i < 500; i++) {
+			if (i % 50 == 0) {
+				storageManager.openStorage();
+			}
+			
+			String[] keywords = new String[random.nextInt(4)];
+			for (int j = 0; j < keywords.length; j++) {
+				keywords[j] = getRandomString(random, characters, 6);
+			}
+			boolean isArchiveSearched = random.nextBoolean();
+			
+			// the search is made first, so that it is the one which reads the shards, archive and mapped task list
+			ArrayList<Task> foundTasks = storageManager.searchTasks(keywords, isArchiveSearched);
+			TaskSnapshot taskList = isArchiveSearched ? storageManager.readAllTasksWithArchive() : storageManager.readAllTasks();
+			assertEquals(foundTasks, searchTasksByScanning(taskList, keywords));
+		}
+		assertEquals(storageManager.readArchivedTasks().isEmpty(), false);
+	}
+	
+	private static String getRandomString(Random random, String characters, int maxLength) {
+		StringBuilder string = new StringBuilder();
+		int length = random.nextInt(maxLength + 1);
+		for (int i = 0; i < length; i++) {
+			string.append(characters.charAt(random.nextInt(characters.length())));
+		}
+		return string.toString();
+	}
+	
+	/*
+	 * Searches every task name for every keyword, as searchTasks did before the task names were indexed
+	 */
+	private static ArrayList<Task> searchTasksByScanning(TaskSnapshot taskList, String[] keywords) {
+		ArrayList<Task> foundTasks = new ArrayList<Task>();
+		for (int i = 0; i < taskList.size(); i++) {
+			int keywordIndex = 0;
+			Task currentTask = taskList.get(i);
+			
+			while (keywordIndex < keywords.length) {
+				String taskName = currentTask.getName().toLowerCase();
+				if (!taskName.contains(keywords[keywordIndex++].toLowerCase())) {
+					break;
+				}
+				if (keywordIndex == keywords.length) {
+					foundTasks.add(currentTask);
+				}
+			}
+		}
+		return foundTasks;
+	}
+	
+	@Test
+	public void testDateIndex() throws Exception {
+		Task task1 = new Task("conference", LocalDateTime.of(2015, 9, 28, 9, 0), LocalDateTime.of(2015, 10, 2, 17, 0), false);
+		Task task2 = new Task("holiday", LocalDateTime.of(2015, 9, 1, 0, 0), LocalDateTime.of(2015, 11, 30, 0, 0), false);
+		Task task3 = new Task("report", LocalDateTime.of(2015, 10, 15, 12, 0), false);
+		Task task4 = new Task("review", LocalDateTime.of(2015, 11, 1, 0, 0), false);
+		Task task5 = new Task("unscheduled", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		storageManager.writeTask(task3);
+		storageManager.writeTask(task4);
+		storageManager.writeTask(task5);
+		taskList.add(task2);
+		taskList.add(task1);
+		taskList.add(task3);
+		
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 10, 1), LocalDate.of(2015, 10, 31)), taskList); // Tests that events overlapping the range are read
+		
+		taskList.clear();
+		taskList.add(task2);
+		taskList.add(task4);
+		
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 11, 1), LocalDate.of(2015, 11, 1)), taskList); // Tests that both ends of the range are included
+		
+		storageManager.removeTask(task2);
+		taskList.remove(task2);
+		
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 11, 1), LocalDate.of(2015, 11, 1)), taskList); // Tests that the index follows mutations
+		
+		storageManager.clearAllTasks();
+		
+		// the index should read the same tasks as checking every task, for any range
+		Random random = new Random(2103);
+		ArrayList<Task> randomTasks = new ArrayList<Task>();
+		LocalDateTime firstDateTime = LocalDateTime.of(2015, 1, 1, 0, 0);
+		for (int i = 0; i < 300; i++) {
+			LocalDateTime start = firstDateTime.plusHours(random.nextInt(365 * 24));
+			if (random.nextBoolean()) {
+				randomTasks.add(new Task("task " + i, start, start.plusHours(random.nextInt(30 * 24)), false));
+			} else {
+				randomTasks.add(new Task("task " + i, start, false));
+			}
+		}
+		storageManager.writeTasks(randomTasks);
+		
+		for (int i = 0; i < 50; i++) {
+			LocalDate from = firstDateTime.toLocalDate().plusDays(random.nextInt(365));
+			LocalDate to = from.plusDays(random.nextInt(20));
+			taskList.clear();
+			for (Task task : storageManager.readAllTasks()) {
+				LocalDateTime start = task.getStartDateTime() == null ? task.getEndDateTime() : task.getStartDateTime();
+				if (!start.toLocalDate().isAfter(to) && !task.getEndDateTime().toLocalDate().isBefore(from)) {
+					taskList.add(task);
+				}
+			}
+			assertEquals(storageManager.readTasksBetween(from, to), taskList);
+		}
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testNameOrdering() throws Exception {
+		Task task1 = new Task("apple", false);
+		Task task2 = new Task("Banana", false);
+		Task task3 = new Task("cherry", false);
+		Task composedTask = new Task("caf\u00e9", false);
+		Task decomposedTask = new Task("cafe\u0301", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task3);
+		storageManager.writeTask(task2);
+		storageManager.writeTask(task1);
+		taskList.add(task1);
+		taskList.add(task2);
+		taskList.add(task3);
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that names are ordered regardless of case
+		
+		storageManager.writeTask(composedTask);
+		storageManager.writeTask(decomposedTask);
+		
+		assertEquals(storageManager.readAllTasks().size(), 5); // Tests that differently encoded names are both kept
+		assertEquals(composedTask.getNormalizedName(), decomposedTask.getNormalizedName());
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testWatchedStorage() throws Exception {
+		Task task1 = new Task("1", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		taskList.add(task1);
+		
+		storageManager.closeStorage();
+		storageManager.setWatchedStorage(true);
+		storageManager.openStorage();
+		File corruptFile = new File(storageManager.getStorageFile().getPath() + ".corrupt");
+		
+		// a sync tool replaces TaskStorage.json with the copy which was last checkpointed
+		byte[] checkpointedStorage = Files.readAllBytes(storageManager.getStorageFile().toPath());
+		Thread.sleep(20);
+		long taskListVersion = storageManager.getTaskListVersion();
+		Files.write(storageManager.getStorageFile().toPath(), checkpointedStorage);
+		
+		long deadline = System.currentTimeMillis() + 5000;
+		while (storageManager.getTaskListVersion() == taskListVersion && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertNotEquals(storageManager.getTaskListVersion(), taskListVersion); // Tests that the change is read in the background
+		assertEquals(storageManager.readAllTasks().isEmpty(), true); // Waits for the replacement to be checkpointed
+		assertEquals(corruptFile.exists(), false); // Tests that a replacement matching a checkpoint is rebased on
+		
+		// a sync tool replaces TaskStorage.json with a task list this Storage never checkpointed
+		taskListVersion = storageManager.getTaskListVersion();
+		FileWriter storageWriter = new FileWriter(storageManager.getStorageFile());
+		storageWriter.write("[{\"name\":\"1\",\"isDone\":false}]");
+		storageWriter.close();
+		
+		deadline = System.currentTimeMillis() + 5000;
+		while (storageManager.getTaskListVersion() == taskListVersion && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertNotEquals(storageManager.getTaskListVersion(), taskListVersion);
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the replaced task list is read
+		assertEquals(storageManager.getDamagedRecordCount(), 0); // Tests that the replaced task list is not treated as damaged
+		assertEquals(corruptFile.exists(), true); // Tests that the conflicting replacement is kept to be merged manually
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(storageManager.getDamagedRecordCount(), 0); // Tests that the replaced task list is checkpointed as the new base
+		
+		// another instance appends to the journal, which is only seen through the generation in the lock file
+		taskListVersion = storageManager.getTaskListVersion();
+		appendFromOtherInstance(new Task("2", false));
+		
+		deadline = System.currentTimeMillis() + 5000;
+		while (storageManager.getTaskListVersion() == taskListVersion && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertNotEquals(storageManager.getTaskListVersion(), taskListVersion); // Tests that the other instance's entries are read in the background
+		
+		deleteFile(corruptFile.getPath());
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		storageManager.setWatchedStorage(false);
+		storageManager.openStorage();
+	}
+	
+	@Test
+	public void testCorruptionRecovery() throws Exception {
+		Task task1 = new Task("1", false);
+		Task task2 = new Task("2", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		taskList.add(task1);
+		taskList.add(task2);
+		
+		// append a truncated entry, as if the program crashed in the middle of writing it
+		FileWriter journalWriter = new FileWriter(storageManager.getJournalFile(), true);
+		journalWriter.write("42 0badf00d {\"operation\":\"ADD\",\"task\":{\"na");
+		journalWriter.close();
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that undamaged entries are kept
+		assertEquals(storageManager.getDamagedRecordCount(), 1); // Tests that the damaged entry is skipped
+		
+		storageManager.clearAllTasks();
+		deleteFile(storageManager.getJournalFile().getPath() + ".corrupt");
+	}
+	
+	@Test
+	public void testLegacyFormat() throws Exception {
+		Task task1 = new Task("1", LocalDateTime.of(2015, 10, 24, 13, 0), true);
+		Task task2 = new Task("2", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		taskList.add(task1);
+		taskList.add(task2);
+		
+		storageManager.closeStorage();
+		deleteFile(storageManager.getJournalFile().getPath());
+		
+		// write the tasks with dates nested as Gson wrote them by reflection
+		FileWriter storageWriter = new FileWriter(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		storageWriter.write("[{\"name\":\"1\",\"end\":{\"date\":{\"year\":2015,\"month\":10,\"day\":24},"
+				+ "\"time\":{\"hour\":13,\"minute\":0,\"second\":0,\"nano\":0}},\"isDone\":true},"
+				+ "{\"name\":\"2\",\"isDone\":false}]");
+		storageWriter.close();
+		
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests reading of the legacy format
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testBinaryFormat() throws Exception {
+		Task task1 = new Task("1", LocalDateTime.of(2015, 10, 24, 13, 0), LocalDateTime.of(2015, 10, 24, 15, 30), false);
+		Task task2 = new Task("\u4efb\u52a1", LocalDateTime.of(2015, 10, 25, 9, 0), true);
+		Task task3 = new Task("3", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		taskList.add(task1);
+		taskList.add(task2);
+		storageManager.closeStorage();
+		
+		writeStorageInformation(TEST_BINARY_FILETYPE);
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.getStorageType(), TEST_BINARY_FILETYPE);
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests conversion from JSON
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		storageManager.writeTask(task3);
+		taskList.add(task3);
+		storageManager.closeStorage();
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests reading of the binary format
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_BINARY_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		
+		writeStorageInformation(TEST_STORAGE_FILETYPE);
+		storageManager.openStorage();
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testFailedConversion() throws Exception {
+		Task task1 = new Task("1", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		taskList.add(task1);
+		storageManager.closeStorage();
+		
+		// a JSON storage which ends in the middle of its second task cannot be converted whole
+		FileWriter storageWriter = new FileWriter(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		storageWriter.write("[{\"name\":\"1\",\"isDone\":false},{\"name\":\"2\",\"isD");
+		storageWriter.close();
+		
+		writeStorageInformation(TEST_BINARY_FILETYPE);
+		storageManager.openStorage();
+		
+		assertEquals(new File(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_BINARY_FILETYPE).exists(), false); // Tests that the partial conversion is not kept
+		assertEquals(storageManager.getStorageType(), TEST_STORAGE_FILETYPE);
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests that the tasks are recovered from the JSON storage
+		assertEquals(storageManager.getDamagedRecordCount() > 0, true); // Tests that the lost task is counted as damaged
+		
+		storageManager.closeStorage();
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.getStorageType(), TEST_BINARY_FILETYPE); // Tests that the recovered storage is converted
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_BINARY_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE + ".corrupt");
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		
+		writeStorageInformation(TEST_STORAGE_FILETYPE);
+		storageManager.openStorage();
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testCompressedStorage() throws Exception {
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		for (int i = 0; i < 200; i++) {
+			taskList.add(new Task("Task " + i, LocalDateTime.of(2015, 10, 24, 13, 0).plusHours(i), false));
+		}
+		
+		storageManager.writeTasks(taskList);
+		storageManager.closeStorage();
+		long uncompressedLength = new File(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE).length();
+		
+		writeStorageInformation(TEST_COMPRESSED_FILETYPE);
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.getStorageType(), TEST_COMPRESSED_FILETYPE);
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests conversion from JSON
+		assertTrue(storageManager.getStorageFile().length() * 5 < uncompressedLength); // Tests that the Storage is compressed
+		
+		storageManager.closeStorage();
+		storageManager.openStorage();
+		
+		assertEquals(storageManager.readAllTasks(), taskList); // Tests reading of the compressed format
+		assertEquals(storageManager.getDamagedRecordCount(), 0);
+		
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_COMPRESSED_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		
+		writeStorageInformation(TEST_STORAGE_FILETYPE);
+		storageManager.openStorage();
+		storageManager.clearAllTasks();
+	}
+	
+	@Test
+	public void testMemoryMappedStorage() throws Exception {
+		Task task1 = new Task("1", LocalDateTime.of(2015, 10, 24, 13, 0), false);
+		Task task2 = new Task("2", false);
+		Task task3 = new Task("3", false);
+		ArrayList<Task> taskList = new ArrayList<Task>();
+		
+		storageManager.closeStorage();
+		writeStorageInformation(TEST_BINARY_FILETYPE);
+		storageManager.setMemoryMappedThreshold(0);
+		storageManager.openStorage();
+		
+		storageManager.writeTask(task1);
+		storageManager.writeTask(task2);
+		taskList.add(task1);
+		taskList.add(task2);
+		storageManager.closeStorage();
+		storageManager.openStorage();
+		
+		TaskSnapshot mappedTaskList = storageManager.readAllTasks();
+		assertTrue(mappedTaskList instanceof MappedTaskSnapshot); // Tests that the task list is mapped
+		assertEquals(mappedTaskList, taskList); // Tests reading of tasks from the mapped task list
+		assertEquals(storageManager.containsTask(task1), true);
+		assertEquals(storageManager.containsTask(new Task("1", LocalDateTime.of(2015, 10, 24, 13, 0), true)), true); // Tests that lookup ignores isDone
+		assertEquals(storageManager.containsTask(task3), false);
+		assertEquals(((MappedTaskSnapshot) mappedTaskList).isMaterialized(), false); // Tests that lookup does not materialize it
+		
+		storageManager.writeTask(task3);
+		
+		assertEquals(((MappedTaskSnapshot) mappedTaskList).isMaterialized(), false); // Tests that modifying does not materialize it
+		assertEquals(mappedTaskList, taskList); // Tests that the old snapshot is unchanged
+		taskList.add(task3);
+		assertTrue(storageManager.readAllTasks() instanceof MappedTaskSnapshot); // Tests that the modified task list is still mapped
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(storageManager.containsTask(task3), true);
+		
+		// Tests reading by dates and keywords from the mapped task list as modified
+		storageManager.removeTask(task1);
+		taskList.remove(task1);
+		assertEquals(storageManager.readAllTasks(), taskList);
+		assertEquals(storageManager.containsTask(task1), false);
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 10, 24), LocalDate.of(2015, 10, 24)).size(), 0);
+		storageManager.writeTask(task1);
+		taskList.add(0, task1);
+		assertEquals(storageManager.readTasksBetween(LocalDate.of(2015, 10, 24), LocalDate.of(2015, 10, 24)), Arrays.asList(task1));
+		assertEquals(storageManager.searchTasks(new String[] {"3"}), Arrays.asList(task3));
+		storageManager.removeTask(task2);
+		taskList.remove(task2);
+		assertEquals(storageManager.searchTasks(new String[] {"2"}).size(), 0);
+		
+		// Tests that the modified task list is mapped again once it is checkpointed
+		storageManager.closeStorage();
+		storageManager.openStorage();
+		assertTrue(storageManager.readAllTasks() instanceof MappedTaskSnapshot);
+		assertEquals(storageManager.readAllTasks(), taskList);
+		
+		// Tests that mutations in the journal are replayed on top of the mapped task list
+		Task task4 = new Task("4", false);
+		Task task5 = new Task("5", false);
+		appendFromOtherInstance(task4);
+		taskList.add(task4);
+		assertEquals(storageManager.readAllTasks(), taskList);
+		storageManager.closeStorage();
+		appendFromOtherInstance(task5);
+		taskList.add(task5);
+		storageManager.openStorage();
+		assertTrue(storageManager.readAllTasks() instanceof MappedTaskSnapshot);
+		assertEquals(storageManager.readAllTasks(), taskList);
+		
+		storageManager.clearAllTasks();
+		storageManager.closeStorage();
+		storageManager.setMemoryMappedThreshold(16 * 1024 * 1024);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_BINARY_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_STORAGE_FILETYPE);
+		deleteFile(TEST_STORAGE_DIRECTORY + TEST_STORAGE_FILENAME + TEST_JOURNAL_FILETYPE);
+		
+		writeStorageInformation(TEST_STORAGE_FILETYPE);
+		storageManager.openStorage();
+	}
+	
+	private static void writeStorageInformation(String storageType) throws IOException {
+		FileWriter informationWriter = new FileWriter(TEST_INFORMATION_DIRECTORY + TEST_INFORMATION_FILENAME + TEST_INFORMATION_FILETYPE);
+		informationWriter.write("{\"fileDirectory\":\"" + TEST_STORAGE_DIRECTORY + "\",\"fileName\":\"" + TEST_STORAGE_FILENAME 
+				+ "\",\"fileType\":\"" + storageType + "\"}");
+		informationWriter.close();
+	}
+	
 	@Test
 	public void testAccessFunctions() throws Exception {
 		assertEquals(storageManager.getStorageDirectory(), "./"); // Tests getStorageDirectory()
@@ -0,0 +1,73 @@
+//@@author A0100081E
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * StorageShard is a file of the Storage holding the tasks which start in one month, or end in it if they are deadlines.
+ * The latest date of its tasks is kept with it, so a shard can be skipped without reading it if it has no tasks in a date range.
+ * The length and checksum of the shard file are kept with it too, so a shard is verified when it is read like TaskStorage is.
+ */
+public class StorageShard {
+	private String name;
+	private LocalDateTime lastDateTime;
+	// Length and checksum of the shard file when it was last written, or null if it was written before they were kept
+	private long length;
+	private Long checksum;
+
+	public StorageShard(String name, LocalDateTime lastDateTime) {
+		this.name = name;
+		this.lastDateTime = lastDateTime;
+	}
+
+	/**
+	 * @param task	a task with a start or end date
+	 * @return		the name of the shard the task belongs to, i.e. 2015-10, or null if the task is unscheduled
+	 */
+	public static String getShardName(Task task) {
+		LocalDateTime date = task.getStartDateTime();
+		if (date == null) {
+			date = task.getEndDateTime();
+		}
+		if (date == null) {
+			return null;
+		}
+		return YearMonth.from(date).toString();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LocalDateTime getLastDateTime() {
+		return lastDateTime;
+	}
+
+	public void setLastDateTime(LocalDateTime lastDateTime) {
+		this.lastDateTime = lastDateTime;
+	}
+
+	public void setChecksum(long length, long checksum) {
+		this.length = length;
+		this.checksum = checksum;
+	}
+
+	/**
+	 * @param length	the length of the shard file which was read
+	 * @param checksum	the checksum of the shard file which was read
+	 * @return			true if the shard file is the one last written, or if no checksum was kept for it
+	 */
+	public boolean isChecksumValid(long length, long checksum) {
+		return this.checksum == null || (this.length == length && this.checksum == checksum);
+	}
+
+	/**
+	 * @param from	the first date of the range
+	 * @param to	the last date of the range
+	 * @return		true if the shard may have a task scheduled at some time within the range
+	 */
+	public boolean overlaps(LocalDate from, LocalDate to) {
+		LocalDate firstDate = YearMonth.parse(name).atDay(1);
+		return !firstDate.isAfter(to) && (lastDateTime == null || !lastDateTime.toLocalDate().isBefore(from));
+	}
+}
@@ -0,0 +1,125 @@
+//@@author A0100081E
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * StorageWatcher watches the directory of the Storage on a background thread, and runs a reload when its files change.
+ * Changes which arrive close together, i.e. a sync tool replacing several files, are coalesced into one reload.
+ * Only the given files are watched, as the journal and archive of the Storage change with every mutation,
+ * and the reload is left to tell the changes made outside this instance from its own.
+ */
+public class StorageWatcher {
+	private static final long COALESCE_WINDOW = 50;
+
+	private File directory;
+	private HashSet<String> fileNames;
+	private Runnable reload;
+	private WatchService watchService;
+	private Thread watchThread;
+
+	private static final Logger log = Logger.getLogger(Ui.LOG_NAME);
+
+	/**
+	 * @param directory	the directory of the Storage
+	 * @param fileNames	the names of the files which are watched in the directory, i.e. TaskStorage.json
+	 * @param reload	what is run on the watcher thread when the files of the Storage change
+	 */
+	public StorageWatcher(File directory, Collection<String> fileNames, Runnable reload) {
+		assert(directory != null && fileNames != null && reload != null);
+
+		this.directory = directory;
+		this.fileNames = new HashSet<String>(fileNames);
+		this.reload = reload;
+	}
+
+	/**
+	 * This method starts watching the directory
+	 *
+	 * @throws IOException	if the directory could not be watched
+	 */
+	public void start() throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		directory.getAbsoluteFile().toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+
+		watchThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runWatchThread();
+			}
+		}, "StorageWatcher");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	/**
+	 * This method stops watching the directory and waits for a reload in progress to finish
+	 * It must not be called while holding the lock of the Storage, which the reload may be waiting for.
+	 */
+	public void stop() {
+		if (watchThread == null) {
+			return;
+		}
+
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Storage watcher could not be closed.\n");
+		}
+
+		try {
+			watchThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		watchThread = null;
+	}
+
+	private void runWatchThread() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean isChanged = pollEvents(key);
+
+				// Wait for the rest of the changes before reloading once
+				while ((key = watchService.poll(COALESCE_WINDOW, TimeUnit.MILLISECONDS)) != null) {
+					isChanged |= pollEvents(key);
+				}
+
+				if (isChanged) {
+					reload.run();
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			log.log(Level.INFO, "Storage watcher stopped.\n");
+		}
+	}
+
+	/**
+	 * @return	true if a watched file changed, or events were lost and it may have
+	 */
+	private boolean pollEvents(WatchKey key) {
+		boolean isChanged = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				isChanged = true;
+			} else if (fileNames.contains(((Path) event.context()).getFileName().toString())) {
+				isChanged = true;
+			}
+		}
+		key.reset();
+		return isChanged;
+	}
+}
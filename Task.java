@@ -1,5 +1,9 @@
 //@@author A0126270N
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * Task is a class that contains all the required information for Command to
@@ -10,6 +14,18 @@ public class Task implements Comparable<Task> {
 	private LocalDateTime start = null;
 	private LocalDateTime end = null;
 boolean isDone; // used to mark tasks as complete
+	// Derived from the name when first needed, and transient so that Gson ignores them
+	private transient String lowerCaseName = null;
+	private transient String normalizedName = null;
+	private transient String sortKey = null;
+	private transient CollationKey collationKey = null;
+	// A Collator is not safe to share between threads, so each thread collates names with its own
+	private static final ThreadLocal<Collator> COLLATOR = new ThreadLocal<Collator>() {
+		@Override
+		protected Collator initialValue() {
+			return Collator.getInstance();
+		}
+	};
 
 	public Task(String name, boolean isDone) {
 		this(name, null, null, isDone);
@@ -66,6 +82,15 @@ boolean isDone; // used to mark tasks as complete
 		return isNameEqual && isEndEqual && isStartEqual;
 	}
 	
+	@Override
+	/**
+	 * The hash code is computed from the same fields as equals(), so that equal tasks can be found in hash-based collections.
+	 * isDone is left out as it is not considered by equals().
+	 */
+	public int hashCode() {
+		return Objects.hash(name, start, end);
+	}
+	
 	//@@author A0145732H
 	@Override
 	/**
@@ -73,6 +98,7 @@ boolean isDone; // used to mark tasks as complete
 	 * Events are compared to other events first by start date, then by end date, then by name.
 	 * Deadlines are compared to other deadlines first by end date, then by name.
 	 * Unscheduled tasks are compared to other unscheduled tasks by name.
+	 * Names are compared ignoring case and accents, through their cached sort keys.
 	 */
 	public int compareTo(Task otherTask) {
 		if (otherTask == null) {
@@ -84,8 +110,6 @@ boolean isDone; // used to mark tasks as complete
 		
 		LocalDateTime otherStart = otherTask.getStartDateTime();
 		LocalDateTime otherEnd = otherTask.getEndDateTime();
-		String otherName = otherTask.getName();
-		
 		// If this is an event:
 		if (this.start != null && this.end != null) {
 			// if other is not an event: this < other
@@ -98,7 +122,7 @@ boolean isDone; // used to mark tasks as complete
 				} else if (!this.end.equals(otherEnd)) {
 					return (this.end.compareTo(otherEnd));
 				} else {
-					return (this.name.compareTo(otherName));
+					return compareNames(otherTask);
 				}
 			}
 		}
@@ -116,7 +140,7 @@ boolean isDone; // used to mark tasks as complete
 				if (!this.end.equals(otherEnd)) {
 					return (this.end.compareTo(otherEnd));
 				} else {
-					return (this.name.compareTo(otherName));
+					return compareNames(otherTask);
 				}
 			}
 		}
@@ -127,10 +151,80 @@ boolean isDone; // used to mark tasks as complete
 				return 1;
 			} else {
 				// both are unscheduled --> sort by name
-				return (this.name.compareTo(otherName));
+				return compareNames(otherTask);
 			}
 		}
 		return 0;
 		
 	}
+	
+	//@@author A0100081E
+	/**
+	 * Names are compared as the user reads them, i.e. "apple" before "Banana" and accented letters next to their base letters,
+	 * by their sort keys rather than their collation keys, as the Storage compares names on every insertion and lookup.
+	 * Names having the same sort key are still told apart by their characters, so only equal tasks compare as 0.
+	 */
+	private int compareNames(Task otherTask) {
+		int comparison = getSortKey().compareTo(otherTask.getSortKey());
+		if (comparison != 0) {
+			return comparison;
+		}
+		return name.compareTo(otherTask.getName());
+	}
+	
+	/**
+	 * @return	the name in lower case, which is kept so that searching does not convert the name again
+	 */
+	public String getLowerCaseName() {
+		if (lowerCaseName == null) {
+			lowerCaseName = name.toLowerCase();
+		}
+		return lowerCaseName;
+	}
+	
+	/**
+	 * @return	the name in Unicode normal form C, so that a name typed with combining accents matches the same name without
+	 */
+	public String getNormalizedName() {
+		if (normalizedName == null) {
+			normalizedName = Normalizer.normalize(name, Normalizer.Form.NFC);
+		}
+		return normalizedName;
+	}
+	
+	/**
+	 * @return	the name in lower case without its accents, which is the lower case name itself for an ASCII name,
+	 * 			so that most names are ordered without being normalized
+	 */
+	public String getSortKey() {
+		if (sortKey == null) {
+			if (isAscii(name)) {
+				sortKey = getLowerCaseName();
+			} else {
+				String decomposedName = Normalizer.normalize(name, Normalizer.Form.NFD);
+				sortKey = decomposedName.replaceAll("\\p{M}", "").toLowerCase();
+			}
+		}
+		return sortKey;
+	}
+	
+	/**
+	 * @return	the collation key of the normalized name in the default locale, which is only computed for callers
+	 * 			needing the exact order of the locale, as the sort key is much cheaper
+	 */
+	public CollationKey getCollationKey() {
+		if (collationKey == null) {
+			collationKey = COLLATOR.get().getCollationKey(getNormalizedName());
+		}
+		return collationKey;
+	}
+	
+	private static boolean isAscii(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) > 0x7F) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+//@@author A0100081E
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * TaskCodec is a format in which the task list is streamed to and from the Storage.
+ * Tasks are read and written one at a time, so the whole task list is never held in memory as a file.
+ */
+public interface TaskCodec {
+	/**
+	 * TaskReader reads tasks one at a time from the start of a stream
+	 */
+	public interface TaskReader {
+		public boolean hasNext() throws IOException;
+
+		/**
+		 * Reads the next task, or returns null if the task could be read but is missing its name
+		 */
+		public Task next() throws IOException;
+	}
+
+	/**
+	 * TaskWriter writes tasks one at a time to a stream, which is complete once it is finished
+	 */
+	public interface TaskWriter {
+		public void write(Task task) throws IOException;
+
+		/**
+		 * Ends the task list and flushes it to the stream, without closing the stream
+		 */
+		public void finish() throws IOException;
+	}
+
+	public TaskReader newReader(InputStream in) throws IOException;
+
+	public TaskWriter newWriter(OutputStream out) throws IOException;
+
+	/**
+	 * This method streams a task list from one format to another, one task at a time
+	 * Tasks which are missing their name are skipped.
+	 *
+	 * @param in			the stream of the task list to convert
+	 * @param from			the format of the task list to convert
+	 * @param out			the stream to write the converted task list to
+	 * @param to			the format to convert the task list to
+	 * @return				the number of tasks converted
+	 * @throws IOException	if the task list could not be read or written
+	 */
+	public static int convert(InputStream in, TaskCodec from, OutputStream out, TaskCodec to) throws IOException {
+		TaskReader reader = from.newReader(in);
+		TaskWriter writer = to.newWriter(out);
+		int taskCount = 0;
+
+		while (reader.hasNext()) {
+			Task task = reader.next();
+			if (task != null) {
+				writer.write(task);
+				taskCount++;
+			}
+		}
+		writer.finish();
+
+		return taskCount;
+	}
+}
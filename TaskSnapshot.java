@@ -0,0 +1,43 @@
+//@@author A0100081E
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * TaskSnapshot is an immutable view of the tasks in the Storage, in sorted order, at a given version of the Storage.
+ * Snapshots can be shared by every caller without copying, as a new snapshot is only made after the Storage is modified.
+ */
+public class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+	public static final TaskSnapshot EMPTY = new TaskSnapshot(new Task[0], 0);
+
+	private final Task[] tasks;
+	private final long version;
+
+	public TaskSnapshot(Task[] tasks, long version) {
+		assert(tasks != null);
+
+		this.tasks = tasks;
+		this.version = version;
+	}
+
+	/**
+	 * Constructs a snapshot whose subclass provides its own tasks
+	 */
+	protected TaskSnapshot(long version) {
+		this.tasks = null;
+		this.version = version;
+	}
+
+	@Override
+	public Task get(int index) {
+		return tasks[index];
+	}
+
+	@Override
+	public int size() {
+		return tasks.length;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+}
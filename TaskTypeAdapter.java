@@ -0,0 +1,92 @@
+//@@author A0100081E
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * TaskTypeAdapter reads and writes a Task field by field, without Gson having to reflect on Task.
+ * Dates are written by LocalDateTimeTypeAdapter, and dates which are not set are left out.
+ */
+public class TaskTypeAdapter extends TypeAdapter<Task> {
+	private static final String FIELD_NAME = "name";
+	private static final String FIELD_START = "start";
+	private static final String FIELD_END = "end";
+	private static final String FIELD_IS_DONE = "isDone";
+
+	private final LocalDateTimeTypeAdapter dateTimeAdapter = new LocalDateTimeTypeAdapter();
+
+	@Override
+	public void write(JsonWriter out, Task task) throws IOException {
+		if (task == null) {
+			out.nullValue();
+			return;
+		}
+
+		out.beginObject();
+		out.name(FIELD_NAME).value(task.getName());
+		if (task.getStartDateTime() != null) {
+			out.name(FIELD_START);
+			dateTimeAdapter.write(out, task.getStartDateTime());
+		}
+		if (task.getEndDateTime() != null) {
+			out.name(FIELD_END);
+			dateTimeAdapter.write(out, task.getEndDateTime());
+		}
+		out.name(FIELD_IS_DONE).value(task.isDone());
+		out.endObject();
+	}
+
+	/**
+	 * Reads a task, or returns null if the task does not have a name
+	 */
+	@Override
+	public Task read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		String name = null;
+		LocalDateTime start = null;
+		LocalDateTime end = null;
+		boolean isDone = false;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+				case FIELD_NAME :
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+					} else {
+						name = in.nextString();
+					}
+					break;
+
+				case FIELD_START :
+					start = dateTimeAdapter.read(in);
+					break;
+
+				case FIELD_END :
+					end = dateTimeAdapter.read(in);
+					break;
+
+				case FIELD_IS_DONE :
+					isDone = in.nextBoolean();
+					break;
+
+				default :
+					in.skipValue();
+			}
+		}
+		in.endObject();
+
+		if (name == null) {
+			return null;
+		}
+		return new Task(name, start, end, isDone);
+	}
+}
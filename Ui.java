@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Scanner;
 import java.util.logging.FileHandler;
@@ -68,6 +69,12 @@ public class Ui {
 	static final String LOG_NAME = "HelloTaskLog";
 	private static Logger logger = Logger.getLogger(LOG_NAME);
 	
+	/** storage variables, where changes made within the commit window can be lost on a crash **/
+	private static final long STORAGE_COMMIT_WINDOW = 200;
+	private static final int STORAGE_COMMIT_BATCH_SIZE = 32;
+	/** number of days after which completed tasks are archived **/
+	private static final long STORAGE_ARCHIVE_AGE = 30;
+	
 	public static void main(String[] args) throws Exception {
 		helloTaskInit();
 		showToUser(MESSAGE_WELCOME);
@@ -105,7 +112,11 @@ public class Ui {
 
 	public static void logicInit() throws Exception {
 		logic = new Logic();
-		logic.init(new StorageManager(), new Logic());
+		StorageManager storageManager = new StorageManager();
+		storageManager.setGroupCommit(STORAGE_COMMIT_WINDOW, STORAGE_COMMIT_BATCH_SIZE);
+		storageManager.setArchiveAge(STORAGE_ARCHIVE_AGE);
+		storageManager.setWatchedStorage(true);
+		logic.init(storageManager, new Logic());
 	}
 
 	public static void loggerInit() {
@@ -164,7 +175,7 @@ public class Ui {
 	 * @param taskList	the task list to format
 	 * @return			a String containing the formatted task list display
 	 */
-	public static String createTaskListDisplay(ArrayList<Task> taskList) {
+	public static String createTaskListDisplay(Collection<Task> taskList) {
 		if (taskList.size() > 0) {
 			StringBuilder message = new StringBuilder();
 			int taskNumber = 1;